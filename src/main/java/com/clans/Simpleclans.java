@@ -3,6 +3,7 @@ package com.clans;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
 import net.fabricmc.fabric.api.event.player.AttackEntityCallback;
@@ -43,9 +44,8 @@ public class Simpleclans implements ModInitializer {
 		// Initialize config first
 		config = ClanConfig.loadOrCreate();
 		
-		// Initialize data manager
+		// Initialize data manager; data loads in the background once the world path is known
 		dataManager = new ClanDataManager();
-		dataManager.load();
 		
 		// Initialize systems
 		timerSystem = new ClanTimerSystem();
@@ -61,16 +61,23 @@ public class Simpleclans implements ModInitializer {
 		
 		// Register server lifecycle events
 		ServerLifecycleEvents.SERVER_STARTING.register(server -> {
-			dataManager.setServer(server);
+			dataManager.initialize(server);
 			timerSystem.initialize(server);
 			proximitySystem.initialize(server);
 			combatSystem.initialize();
 			chatSystem.initialize();
 		});
 		
+		// World storage is written by the server's own autosave and save-all
+		ServerLifecycleEvents.BEFORE_SAVE.register((server, flush, force) -> dataManager.onWorldSave());
+		ServerLifecycleEvents.AFTER_SAVE.register((server, flush, force) -> dataManager.onWorldSaved());
+		
+		// Proximity snapshots and effect changes run on the server thread
+		ServerTickEvents.END_SERVER_TICK.register(server -> proximitySystem.tick());
+		
 		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
 			if (dataManager != null) {
-				dataManager.save();
+				dataManager.shutdown();
 			}
 			if (timerSystem != null) {
 				timerSystem.shutdown();
@@ -84,11 +91,19 @@ public class Simpleclans implements ModInitializer {
 		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
 			ClanMemberStatus.setOnline(handler.player.getUuid());
 			dataManager.onPlayerJoin(handler.player);
+			proximitySystem.onPlayerJoin(handler.player);
 		});
 		
 		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
 			ClanMemberStatus.setOffline(handler.player.getUuid());
 			dataManager.onPlayerDisconnect(handler.player);
+			proximitySystem.onPlayerDisconnect(handler.player);
+		});
+		
+		// Respawning replaces the player entity; refresh the online index and the proximity buffs
+		ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
+			dataManager.onPlayerRespawn(newPlayer);
+			proximitySystem.onPlayerRespawn(newPlayer);
 		});
 		
 		// 🔧 FIXED: Use proper death event for kill tracking
@@ -98,7 +113,7 @@ public class Simpleclans implements ModInitializer {
 			}
 		});
 		
-		// Register damage events for combat bonuses
+		// Friendly fire and ally protection; damage bonuses come from LivingEntityDamageMixin
 		ServerLivingEntityEvents.ALLOW_DAMAGE.register(combatSystem::handleDamageEvent);
 		
 		LOGGER.info("Simple Clans Mod initialized successfully!");
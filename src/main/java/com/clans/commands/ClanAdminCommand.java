@@ -2,6 +2,7 @@ package com.clans.commands;
 
 import com.clans.Simpleclans;
 import com.clans.data.ClanDataManager;
+import com.clans.data.ClanSaveWorker;
 import com.clans.model.Clan;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.StringArgumentType;
@@ -12,6 +13,8 @@ import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -27,13 +30,17 @@ public class ClanAdminCommand {
                     .executes(context -> toggleWars(context, false))))
             .then(CommandManager.literal("disband")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanAdminCommand::adminDisbandClan)))
+                    .executes(ClanCommand.whenLoaded(ClanAdminCommand::adminDisbandClan))))
             .then(CommandManager.literal("reload")
                 .executes(ClanAdminCommand::reloadConfig))
             .then(CommandManager.literal("info")
-                .executes(ClanAdminCommand::adminInfo))
+                .executes(ClanCommand.whenLoaded(ClanAdminCommand::adminInfo)))
             .then(CommandManager.literal("save")
-                .executes(ClanAdminCommand::forceSave)));
+                .executes(ClanCommand.whenLoaded(ClanAdminCommand::forceSave)))
+            .then(CommandManager.literal("export")
+                .executes(ClanCommand.whenLoaded(ClanAdminCommand::exportJson)))
+            .then(CommandManager.literal("verify")
+                .executes(ClanCommand.whenLoaded(ClanAdminCommand::verifyRelations))));
     }
     
     private static int toggleWars(CommandContext<ServerCommandSource> context, boolean enable) throws CommandSyntaxException {
@@ -73,6 +80,7 @@ public class ClanAdminCommand {
         try {
             // Force reload config
             Simpleclans.getConfig().forceReload();
+            Simpleclans.getDataManager().applyPowerWeights();
             
             // Provide detailed feedback
             context.getSource().sendFeedback(() -> Text.literal("🔄 Configuration reloaded successfully!")
@@ -117,14 +125,55 @@ public class ClanAdminCommand {
         context.getSource().sendFeedback(() -> Text.literal("Wars Enabled: " + dataManager.isWarsEnabled())
             .formatted(Formatting.YELLOW), false);
         
+        ClanSaveWorker saveWorker = dataManager.getSaveWorker();
+        context.getSource().sendFeedback(() -> Text.literal(String.format("Saves: %d written, %d coalesced, %s pending",
+                saveWorker.getSavesWritten(), saveWorker.getCoalescedSaves(), saveWorker.isDirty() ? "changes" : "nothing"))
+            .formatted(Formatting.YELLOW), false);
+        
+        context.getSource().sendFeedback(() -> Text.literal(String.format("Save Latency: %.1f ms last, %.1f ms avg, %.1f ms max",
+                saveWorker.getLastSaveMillis(), saveWorker.getAverageSaveMillis(), saveWorker.getMaxSaveMillis()))
+            .formatted(Formatting.YELLOW), false);
+        
+        StringBuilder loadTimes = new StringBuilder(String.format("Startup Load: %.1f ms", dataManager.getTotalLoadMillis()));
+        for (Map.Entry<String, Double> entry : dataManager.getLoadMillis().entrySet()) {
+            loadTimes.append(String.format(", %s %.1f ms", entry.getKey(), entry.getValue()));
+        }
+        context.getSource().sendFeedback(() -> Text.literal(loadTimes.toString())
+            .formatted(Formatting.YELLOW), false);
+        
         return 1;
     }
     
     private static int forceSave(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
-        Simpleclans.getDataManager().save();
+        Simpleclans.getDataManager().saveNow();
         context.getSource().sendFeedback(() -> Text.literal("Clan data saved!")
             .formatted(Formatting.GREEN), true);
         return 1;
     }
+    
+    private static int exportJson(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        try {
+            Path exportDir = Simpleclans.getDataManager().exportJson();
+            context.getSource().sendFeedback(() -> Text.literal("Clan data exported to " + exportDir)
+                .formatted(Formatting.GREEN), true);
+            return 1;
+        } catch (IOException e) {
+            Simpleclans.LOGGER.error("Failed to export clan data", e);
+            context.getSource().sendError(Text.literal("Export failed: " + e.getMessage()));
+            return 0;
+        }
+    }
+    
+    private static int verifyRelations(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        int mismatches = Simpleclans.getDataManager().verifyRelationIndex();
+        if (mismatches == 0) {
+            context.getSource().sendFeedback(() -> Text.literal("Clan relation index is consistent.")
+                .formatted(Formatting.GREEN), false);
+        } else {
+            context.getSource().sendFeedback(() -> Text.literal("Rebuilt clan relation index (" + mismatches + " clans were out of sync)")
+                .formatted(Formatting.YELLOW), true);
+        }
+        return 1;
+    }
 }
 
@@ -5,6 +5,7 @@ import com.clans.data.ClanDataManager;
 import com.clans.data.ClanMemberStatus;
 import com.clans.model.*;
 import com.clans.util.ClanUtils;
+import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
@@ -41,84 +42,95 @@ public class ClanCommand {
             // All commands visible - permissions checked inside methods
             .then(CommandManager.literal("create")
                 .then(CommandManager.argument("name", StringArgumentType.string())
-                    .executes(ClanCommand::createClan)))
+                    .executes(whenLoaded(ClanCommand::createClan))))
             
             .then(CommandManager.literal("invite")
                 .then(CommandManager.argument("player", StringArgumentType.string())
-                    .executes(ClanCommand::invitePlayer)))
+                    .executes(whenLoaded(ClanCommand::invitePlayer))))
             
             .then(CommandManager.literal("join")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::joinClan)))
+                    .executes(whenLoaded(ClanCommand::joinClan))))
             
             .then(CommandManager.literal("leave")
-                .executes(ClanCommand::leaveClan))
+                .executes(whenLoaded(ClanCommand::leaveClan)))
             
             .then(CommandManager.literal("disband")
-                .executes(ClanCommand::disbandClan))
+                .executes(whenLoaded(ClanCommand::disbandClan)))
             
             .then(CommandManager.literal("ally")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::allyClan)))
+                    .executes(whenLoaded(ClanCommand::allyClan))))
             
             .then(CommandManager.literal("enemy")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::enemyClan)))
+                    .executes(whenLoaded(ClanCommand::enemyClan))))
             
             .then(CommandManager.literal("neutral")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::neutralClan)))
+                    .executes(whenLoaded(ClanCommand::neutralClan))))
             
             .then(CommandManager.literal("vault")
                 .then(CommandManager.argument("count", IntegerArgumentType.integer(1))
-                    .executes(ClanCommand::vaultStore))
+                    .executes(whenLoaded(ClanCommand::vaultStore)))
                 .then(CommandManager.literal("remove")
                     .then(CommandManager.argument("count", IntegerArgumentType.integer(1))
-                        .executes(ClanCommand::vaultRemove)))
-                .executes(ClanCommand::vaultList))
+                        .executes(whenLoaded(ClanCommand::vaultRemove))))
+                .executes(whenLoaded(ClanCommand::vaultList)))
             
             .then(CommandManager.literal("info")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::clanInfoOther))
-                .executes(ClanCommand::clanInfoSelf))
+                    .executes(whenLoaded(ClanCommand::clanInfoOther)))
+                .executes(whenLoaded(ClanCommand::clanInfoSelf)))
             
             .then(CommandManager.literal("boards")
-                .executes(ClanCommand::clanBoards))
+                .executes(whenLoaded(ClanCommand::clanBoards)))
             
             .then(CommandManager.literal("declare")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::declareWar)))
+                    .executes(whenLoaded(ClanCommand::declareWar))))
             
             .then(CommandManager.literal("list")
-                .executes(ClanCommand::listClans))
+                .executes(whenLoaded(ClanCommand::listClans)))
             
             .then(CommandManager.literal("transfer")
                 .then(CommandManager.argument("player", StringArgumentType.string())
-                    .executes(ClanCommand::transferKing)))
+                    .executes(whenLoaded(ClanCommand::transferKing))))
             
             .then(CommandManager.literal("roles")
-                .executes(ClanCommand::showRoles))
+                .executes(whenLoaded(ClanCommand::showRoles)))
             
             .then(CommandManager.literal("kick")
                 .then(CommandManager.argument("player", StringArgumentType.string())
-                    .executes(ClanCommand::kickPlayer)))
+                    .executes(whenLoaded(ClanCommand::kickPlayer))))
             
             .then(CommandManager.literal("promote")
                 .then(CommandManager.argument("player", StringArgumentType.string())
-                    .executes(ClanCommand::promotePlayer)))
+                    .executes(whenLoaded(ClanCommand::promotePlayer))))
             
             .then(CommandManager.literal("chat")
                 .then(CommandManager.argument("message", StringArgumentType.greedyString())
-                    .executes(ClanCommand::sendClanMessage)))
+                    .executes(whenLoaded(ClanCommand::sendClanMessage))))
             
             .then(CommandManager.literal("declareEnemy")
                 .then(CommandManager.argument("clanName", StringArgumentType.string())
-                    .executes(ClanCommand::declareEnemy))));
+                    .executes(whenLoaded(ClanCommand::declareEnemy)))));
         
         // /cc alias - visible to everyone
         dispatcher.register(CommandManager.literal("cc")
             .then(CommandManager.argument("message", StringArgumentType.greedyString())
-                .executes(ClanCommand::sendClanMessage)));
+                .executes(whenLoaded(ClanCommand::sendClanMessage))));
+    }
+    
+    // Clan data loads in the background at startup; commands wait until it is in memory
+    static Command<ServerCommandSource> whenLoaded(Command<ServerCommandSource> command) {
+        return context -> {
+            if (!Simpleclans.getDataManager().isReady()) {
+                context.getSource().sendError(Text.literal("⏳ Clan data is still loading, try again in a moment."));
+                return 0;
+            }
+            return command.run(context);
+        };
     }
     
     // BEAUTIFUL /clan create
@@ -166,12 +178,6 @@ public class ClanCommand {
         // Create clan successfully
         boolean success = dataManager.createClan(clanName, player.getUuid());
         if (success) {
-            // Store player name in clan after creation
-            Clan newClan = dataManager.getClan(clanName);
-            if (newClan != null) {
-                newClan.storeMemberName(player.getUuid(), player.getName().getString());
-            }
-            
             // Beautiful success message
             player.sendMessage(Text.literal("🏰 ")
                 .formatted(Formatting.GOLD, Formatting.BOLD)
@@ -345,9 +351,6 @@ public class ClanCommand {
         boolean success = dataManager.addPlayerToClan(player.getUuid(), clanName);
         if (success) {
             Clan clan = dataManager.getClan(clanName);
-            if (clan != null) {
-                clan.storeMemberName(player.getUuid(), player.getName().getString());
-            }
             
             // Beautiful success message to new member
             player.sendMessage(Text.literal("🎉 ")
@@ -367,12 +370,9 @@ public class ClanCommand {
                 .append(Text.literal(" has joined your clan!")
                     .formatted(Formatting.YELLOW));
             
-            for (UUID memberUuid : clan.getMembers()) {
-                if (!memberUuid.equals(player.getUuid())) {
-                    ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-                    if (member != null) {
-                        member.sendMessage(joinNotification, false);
-                    }
+            for (ServerPlayerEntity member : dataManager.getOnlineMembers(clan)) {
+                if (!member.getUuid().equals(player.getUuid())) {
+                    member.sendMessage(joinNotification, false);
                 }
             }
             
@@ -426,7 +426,7 @@ public class ClanCommand {
                     .formatted(Formatting.WHITE))
                 .append(Text.literal(" | Power: ")
                     .formatted(Formatting.GRAY))
-                .append(Text.literal(String.valueOf(clan.calculatePower()))
+                .append(Text.literal(String.valueOf(dataManager.getClanPower(clan)))
                     .formatted(Formatting.GREEN, Formatting.BOLD));
         }
         
@@ -469,7 +469,7 @@ public class ClanCommand {
         }
         
         // Transfer king role
-        if (clan.transferKing(target.getUuid())) {
+        if (dataManager.transferKing(clan, target.getUuid())) {
             player.sendMessage(Text.literal("Successfully transferred leadership to " + targetName)
                 .formatted(Formatting.GREEN), false);
             target.sendMessage(Text.literal("You are now the King of " + clan.getOriginalName() + "!")
@@ -477,9 +477,7 @@ public class ClanCommand {
             
             // Notify clan
             ClanUtils.broadcastToClan(clan, Text.literal(targetName + " is now the King of " + clan.getOriginalName() + "!")
-                .formatted(Formatting.GOLD), dataManager.getServer());
-            
-            dataManager.save();
+                .formatted(Formatting.GOLD));
             return 1;
         } else {
             player.sendMessage(Text.literal("Failed to transfer leadership!")
@@ -531,13 +529,11 @@ public class ClanCommand {
         
         // Show Peasants
         StringBuilder peasantNames = new StringBuilder();
-        for (UUID memberId : clan.getMembers()) {
+        for (ServerPlayerEntity peasant : dataManager.getOnlineMembers(clan)) {
+            UUID memberId = peasant.getUuid();
             if (!clan.isKing(memberId) && !clan.isAdvisor(memberId)) {
-                ServerPlayerEntity peasant = dataManager.getServer().getPlayerManager().getPlayer(memberId);
-                if (peasant != null) {
-                    if (peasantNames.length() > 0) peasantNames.append(", ");
-                    peasantNames.append(peasant.getName().getString());
-                }
+                if (peasantNames.length() > 0) peasantNames.append(", ");
+                peasantNames.append(peasant.getName().getString());
             }
         }
         
@@ -567,26 +563,8 @@ public class ClanCommand {
             return 0;
         }
         
-        // FIXED: Find target player UUID
-        ServerPlayerEntity targetPlayer = dataManager.getServer().getPlayerManager().getPlayer(targetName);
-        UUID targetId = null;
-
-        if (targetPlayer != null) {
-            // Player is online - get their UUID
-            targetId = targetPlayer.getUuid();
-        } else {
-            // Player is offline - search through clan member names
-            for (Clan searchClan : dataManager.getAllClans()) {
-                for (UUID memberId : searchClan.getMembers()) {
-                    String memberName = searchClan.getMemberName(memberId);
-                    if (memberName.equalsIgnoreCase(targetName)) {
-                        targetId = memberId;
-                        break;
-                    }
-                }
-                if (targetId != null) break;
-            }
-        }
+        // FIXED: Find target player UUID (online, or offline through the name index)
+        UUID targetId = dataManager.findPlayerId(targetName);
 
         if (targetId == null) {
             player.sendMessage(Text.literal("❌ Player '" + targetName + "' not found!").formatted(Formatting.RED), false);
@@ -622,6 +600,7 @@ public class ClanCommand {
                 .formatted(Formatting.GREEN)), false);
         
         // Notify kicked player if online
+        ServerPlayerEntity targetPlayer = dataManager.getServer().getPlayerManager().getPlayer(targetId);
         if (targetPlayer != null) {
             targetPlayer.sendMessage(Text.literal("❌ You have been kicked from ")
                 .formatted(Formatting.RED)
@@ -641,16 +620,11 @@ public class ClanCommand {
             .append(Text.literal(player.getName().getString())
                 .formatted(Formatting.YELLOW, Formatting.BOLD));
         
-        for (UUID memberUuid : clan.getMembers()) {
-            if (!memberUuid.equals(player.getUuid()) && !memberUuid.equals(targetId)) {
-                ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-                if (member != null) {
-                    member.sendMessage(kickNotification, false);
-                }
+        for (ServerPlayerEntity member : dataManager.getOnlineMembers(clan)) {
+            if (!member.getUuid().equals(player.getUuid()) && !member.getUuid().equals(targetId)) {
+                member.sendMessage(kickNotification, false);
             }
         }
-        
-        dataManager.save();
         return 1;
     }
     
@@ -672,23 +646,7 @@ public class ClanCommand {
         }
         
         // Find target player UUID
-        ServerPlayerEntity targetPlayer = dataManager.getServer().getPlayerManager().getPlayer(targetName);
-        UUID targetId = null;
-
-        if (targetPlayer != null) {
-            targetId = targetPlayer.getUuid();
-        } else {
-            for (Clan searchClan : dataManager.getAllClans()) {
-                for (UUID memberId : searchClan.getMembers()) {
-                    String memberName = searchClan.getMemberName(memberId);
-                    if (memberName.equalsIgnoreCase(targetName)) {
-                        targetId = memberId;
-                        break;
-                    }
-                }
-                if (targetId != null) break;
-            }
-        }
+        UUID targetId = dataManager.findPlayerId(targetName);
 
         if (targetId == null) {
             player.sendMessage(Text.literal("❌ Player '" + targetName + "' not found!").formatted(Formatting.RED), false);
@@ -723,7 +681,7 @@ public class ClanCommand {
         }
         
         // Promote to advisor
-        clan.getAdvisors().add(targetId);
+        dataManager.addAdvisor(clan, targetId);
         
         // Success messages
         player.sendMessage(Text.literal("💼 ")
@@ -734,6 +692,7 @@ public class ClanCommand {
                 .formatted(Formatting.LIGHT_PURPLE)), false);
         
         // Notify promoted player
+        ServerPlayerEntity targetPlayer = dataManager.getServer().getPlayerManager().getPlayer(targetId);
         if (targetPlayer != null) {
             targetPlayer.sendMessage(Text.literal("💼 You have been promoted to Advisor in ")
                 .formatted(Formatting.LIGHT_PURPLE, Formatting.BOLD)
@@ -751,16 +710,11 @@ public class ClanCommand {
             .append(Text.literal(" has been promoted to Advisor!")
                 .formatted(Formatting.LIGHT_PURPLE));
         
-        for (UUID memberUuid : clan.getMembers()) {
-            if (!memberUuid.equals(player.getUuid()) && !memberUuid.equals(targetId)) {
-                ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-                if (member != null) {
-                    member.sendMessage(promoteNotification, false);
-                }
+        for (ServerPlayerEntity member : dataManager.getOnlineMembers(clan)) {
+            if (!member.getUuid().equals(player.getUuid()) && !member.getUuid().equals(targetId)) {
+                member.sendMessage(promoteNotification, false);
             }
         }
-        
-        dataManager.save();
         return 1;
     }
     
@@ -833,7 +787,7 @@ public class ClanCommand {
         
         // Consume netherite and add to vault
         if (ClanUtils.consumeItems(player, Items.NETHERITE_INGOT, count)) {
-            clan.setNetheriteVault(currentVault + count);
+            dataManager.updateVault(clan, currentVault + count);
             ClanUtils.incrementDailyOperation(player.getUuid(), "deposit");
             
             // Beautiful success message
@@ -859,7 +813,6 @@ public class ClanCommand {
                         .formatted(Formatting.GRAY)), false);
             }
             
-            dataManager.save();
             return 1;
         }
         
@@ -913,7 +866,7 @@ public class ClanCommand {
         // Give netherite to player and remove from vault
         ItemStack netheriteStack = new ItemStack(Items.NETHERITE_INGOT, count);
         if (player.getInventory().insertStack(netheriteStack)) {
-            clan.setNetheriteVault(currentVault - count);
+            dataManager.updateVault(clan, currentVault - count);
             ClanUtils.incrementDailyOperation(player.getUuid(), "withdraw");
             
             // Beautiful success message
@@ -939,7 +892,6 @@ public class ClanCommand {
                         .formatted(Formatting.GRAY)), false);
             }
             
-            dataManager.save();
             return 1;
         } else {
             player.sendMessage(Text.literal("❌ Your inventory is full!")
@@ -1272,12 +1224,7 @@ public class ClanCommand {
             .append(Text.literal(" has left your clan!")
                 .formatted(Formatting.LIGHT_PURPLE));
         
-        for (UUID memberUuid : clan.getMembers()) {
-            ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-            if (member != null) {
-                member.sendMessage(leaveNotification, false);
-            }
-        }
+        ClanUtils.broadcastToClan(clan, leaveNotification);
         
         return 1;
     }
@@ -1340,12 +1287,7 @@ public class ClanCommand {
             .append(Text.literal(" has been disbanded!")
                 .formatted(Formatting.WHITE));
         
-        for (UUID memberUuid : clan.getMembers()) {
-            ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-            if (member != null) {
-                member.sendMessage(disbandNotification, false);
-            }
-        }
+        ClanUtils.broadcastToClan(clan, disbandNotification);
         
         dataManager.disbandClan(clan.getName());
         
@@ -1414,15 +1356,7 @@ public class ClanCommand {
             }
             
             // Create bidirectional alliance
-            String clanKey = clan.getName().toLowerCase();
-            
-            clan.getEnemies().remove(targetKey);
-            clan.getNeutrals().remove(targetKey);
-            clan.getAllies().add(targetKey);
-            
-            targetClan.getEnemies().remove(clanKey);
-            targetClan.getNeutrals().remove(clanKey);
-            targetClan.getAllies().add(clanKey);
+            dataManager.applyDiplomacy(clan, targetClan, "ally");
             
             // Success messages
             player.sendMessage(Text.literal("🤝 Alliance formed with ")
@@ -1439,15 +1373,9 @@ public class ClanCommand {
                 .append(Text.literal(" has accepted your alliance request!")
                     .formatted(Formatting.GREEN));
             
-            for (UUID memberUuid : targetClan.getMembers()) {
-                ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-                if (member != null) {
-                    member.sendMessage(allyNotification, false);
-                }
-            }
+            ClanUtils.broadcastToClan(targetClan, allyNotification);
             
             ClanUtils.notifyGoldConsumption(player, Simpleclans.getConfig().allyCost, "alliance with " + targetClan.getOriginalName());
-            dataManager.save();
             return 1;
         } else {
             // Send alliance request
@@ -1494,7 +1422,6 @@ public class ClanCommand {
                     .formatted(Formatting.GRAY)), false);
             
             ClanUtils.notifyGoldConsumption(player, Simpleclans.getConfig().allyCost, "alliance request to " + targetClan.getOriginalName());
-            dataManager.save();
             return 1;
         }
     }
@@ -1535,16 +1462,7 @@ public class ClanCommand {
         }
         
         // Create bidirectional enemy relationship
-        String targetKey = targetClan.getName().toLowerCase();
-        String clanKey = clan.getName().toLowerCase();
-        
-        clan.getAllies().remove(targetKey);
-        clan.getNeutrals().remove(targetKey);
-        clan.getEnemies().add(targetKey);
-        
-        targetClan.getAllies().remove(clanKey);
-        targetClan.getNeutrals().remove(clanKey);
-        targetClan.getEnemies().add(clanKey);
+        dataManager.applyDiplomacy(clan, targetClan, "enemy");
         
         // Success message
         player.sendMessage(Text.literal("⚔️ ")
@@ -1572,7 +1490,6 @@ public class ClanCommand {
         }
         
         ClanUtils.notifyGoldConsumption(player, Simpleclans.getConfig().enemyCost, "declaring " + targetClan.getOriginalName() + " as enemy");
-        dataManager.save();
         return 1;
     }
 
@@ -1607,16 +1524,7 @@ public class ClanCommand {
         }
         
         // Set neutral relationship
-        String targetKey = targetClan.getName().toLowerCase();
-        String clanKey = clan.getName().toLowerCase();
-        
-        clan.getAllies().remove(targetKey);
-        clan.getEnemies().remove(targetKey);
-        clan.getNeutrals().add(targetKey);
-        
-        targetClan.getAllies().remove(clanKey);
-        targetClan.getEnemies().remove(clanKey);
-        targetClan.getNeutrals().add(clanKey);
+        dataManager.applyDiplomacy(clan, targetClan, "neutral");
         
         // Success message
         player.sendMessage(Text.literal("🤷 Neutral relations set with ")
@@ -1633,15 +1541,9 @@ public class ClanCommand {
             .append(Text.literal(" has set neutral relations with your clan!")
                 .formatted(Formatting.YELLOW));
         
-        for (UUID memberUuid : targetClan.getMembers()) {
-            ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-            if (member != null) {
-                member.sendMessage(neutralNotification, false);
-            }
-        }
+        ClanUtils.broadcastToClan(targetClan, neutralNotification);
         
         ClanUtils.notifyGoldConsumption(player, Simpleclans.getConfig().neutralCost, "neutral relations with " + targetClan.getOriginalName());
-        dataManager.save();
         return 1;
     }
 
@@ -1712,8 +1614,7 @@ public class ClanCommand {
         }
         
         // Start war
-        clan.startWar(targetClan.getName().toLowerCase());
-        targetClan.startWar(clan.getName().toLowerCase());
+        dataManager.startWar(clan, targetClan);
         
         // Success message
         player.sendMessage(Text.literal("⚔️ WAR DECLARED! ")
@@ -1743,7 +1644,6 @@ public class ClanCommand {
         }
         
         ClanUtils.notifyGoldConsumption(player, Simpleclans.getConfig().warDeclarationCost, "declaring war on " + targetClan.getOriginalName());
-        dataManager.save();
         return 1;
     }
 
@@ -1782,17 +1682,7 @@ public class ClanCommand {
         }
         
         // BIDIRECTIONAL: Both clans become enemies
-        String targetKey = targetClan.getName().toLowerCase();
-        String clanKey = clan.getName().toLowerCase();
-        
-        // Remove from allies/neutrals and add to enemies
-        clan.getAllies().remove(targetKey);
-        clan.getNeutrals().remove(targetKey);
-        clan.getEnemies().add(targetKey);
-        
-        targetClan.getAllies().remove(clanKey);
-        targetClan.getNeutrals().remove(clanKey);
-        targetClan.getEnemies().add(clanKey);
+        dataManager.applyDiplomacy(clan, targetClan, "enemy");
         
         // Notify gold consumption
         ClanUtils.notifyGoldConsumption(player, Simpleclans.getConfig().enemyCost, "declaring " + targetClan.getOriginalName() + " as enemy");
@@ -1822,7 +1712,6 @@ public class ClanCommand {
             onlinePlayer.sendMessage(globalMessage, false);
         }
         
-        dataManager.save();
         return 1;
     }
 
@@ -1830,17 +1719,15 @@ public class ClanCommand {
         ServerPlayerEntity player = context.getSource().getPlayerOrThrow();
         ClanDataManager dataManager = Simpleclans.getDataManager();
         
-        List<Clan> allClans = new ArrayList<>(dataManager.getAllClans());
+        // Already ordered by power (descending) on the leaderboard index
+        List<Clan> topClans = dataManager.getTopClans(10);
         
-        if (allClans.isEmpty()) {
+        if (topClans.isEmpty()) {
             player.sendMessage(Text.literal("📊 No clans exist yet to display rankings!")
                 .formatted(Formatting.YELLOW), false);
             return 0;
         }
         
-        // Sort clans by power (descending)
-        allClans.sort((a, b) -> Integer.compare(b.calculatePower(), a.calculatePower()));
-        
         // Beautiful leaderboard
         MutableText boardMessage = Text.literal("═══════════════════════════")
             .formatted(Formatting.GOLD, Formatting.BOLD)
@@ -1852,9 +1739,8 @@ public class ClanCommand {
                 .formatted(Formatting.GOLD, Formatting.BOLD));
         
         // Show top clans (limit to top 10)
-        int displayCount = Math.min(allClans.size(), 10);
-        for (int i = 0; i < displayCount; i++) {
-            Clan clan = allClans.get(i);
+        for (int i = 0; i < topClans.size(); i++) {
+            Clan clan = topClans.get(i);
             String rank = String.valueOf(i + 1);
             Formatting rankColor = i == 0 ? Formatting.GOLD : i == 1 ? Formatting.GRAY : i == 2 ? Formatting.YELLOW : Formatting.WHITE;
             
@@ -1864,7 +1750,7 @@ public class ClanCommand {
                     .formatted(Formatting.AQUA, Formatting.BOLD))
                 .append(Text.literal(" - Power: ")
                     .formatted(Formatting.GRAY))
-                .append(Text.literal(String.valueOf(clan.calculatePower()))
+                .append(Text.literal(String.valueOf(dataManager.getClanPower(clan)))
                     .formatted(Formatting.GREEN, Formatting.BOLD))
                 .append(Text.literal(" (")
                     .formatted(Formatting.GRAY))
@@ -1874,6 +1760,19 @@ public class ClanCommand {
                     .formatted(Formatting.GRAY));
         }
         
+        // Show the player's own clan below the top 10
+        Clan ownClan = dataManager.getPlayerClan(player.getUuid());
+        if (ownClan != null && !topClans.contains(ownClan)) {
+            boardMessage = boardMessage.append(Text.literal("\n...\n" + dataManager.getClanRank(ownClan) + ". ")
+                    .formatted(Formatting.WHITE, Formatting.BOLD))
+                .append(Text.literal(ownClan.getOriginalName())
+                    .formatted(Formatting.AQUA, Formatting.BOLD))
+                .append(Text.literal(" - Power: ")
+                    .formatted(Formatting.GRAY))
+                .append(Text.literal(String.valueOf(dataManager.getClanPower(ownClan)))
+                    .formatted(Formatting.GREEN, Formatting.BOLD));
+        }
+        
         boardMessage = boardMessage.append(Text.literal("\n═══════════════════════════")
             .formatted(Formatting.GOLD, Formatting.BOLD));
         
@@ -1889,16 +1788,8 @@ public class ClanCommand {
             return Text.literal(onlinePlayer.getName().getString())
                 .formatted(Formatting.GREEN);
         } else {
-            // Offline player - get stored name, gray color
-            String storedName = "Unknown";
-            for (Clan clan : dataManager.getAllClans()) {
-                String name = clan.getMemberName(playerId);
-                if (!name.equals("Unknown")) {
-                    storedName = name;
-                    break;
-                }
-            }
-            return Text.literal(storedName + " (offline)")
+            // Offline player - indexed name, gray color
+            return Text.literal(dataManager.getPlayerName(playerId) + " (offline)")
                 .formatted(Formatting.GRAY);
         }
     }
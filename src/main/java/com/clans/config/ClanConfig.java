@@ -38,9 +38,20 @@ public class ClanConfig {
     public int invitationExpirationMinutes = 5;
     public int netheriteConsumptionHours = 24;
     public int proximityCheckSeconds = 2;
+    public int proximityTickBudgetMicros = 500;     // Per-tick time for applying proximity effect changes
+    public double proximityMoveThreshold = 1.0;     // Blocks a member must move before their clan is re-evaluated
+    public int actionBarRefreshSeconds = 2;         // Re-send an unchanged buff action bar this often; keep under the ~3s fade (0 = only on change)
+    public int proximityMaxAgeMillis = 5000;        // Cached nearby-counts older than this are recomputed on damage
     public int netheriteVaultHours = 12;
     public int warDurationHours = 24;               // ESSENTIAL: 24-hour war duration
     public int allianceRequestExpirationMinutes = 5; // ESSENTIAL: 5-minute ally request timeout
+    public int saveIntervalSeconds = 30;            // Write-behind flush interval for clan data
+    public String fsyncPolicy = "always";           // always | shutdown | never
+    public String storageMode = "single";           // single (clans.json) | sharded (one file per clan) | h2 (embedded database) | world (NBT in the world save)
+    public boolean journalEnabled = false;          // Append mutations to journal-<n>.log instead of rewriting snapshots
+    public int journalCompactKb = 1024;             // Fold the journal into a snapshot once a segment passes this size
+    public String snapshotFormat = "json";          // json | binary (clans.dat, single storage mode only)
+    public boolean snapshotCompression = true;      // Deflate the binary snapshot
     
     // War Rewards
     public int warWinnerNetherite = 1;
@@ -117,9 +128,20 @@ public class ClanConfig {
         this.invitationExpirationMinutes = other.invitationExpirationMinutes;
         this.netheriteConsumptionHours = other.netheriteConsumptionHours;
         this.proximityCheckSeconds = other.proximityCheckSeconds;
+        this.proximityTickBudgetMicros = other.proximityTickBudgetMicros;
+        this.proximityMoveThreshold = other.proximityMoveThreshold;
+        this.actionBarRefreshSeconds = other.actionBarRefreshSeconds;
+        this.proximityMaxAgeMillis = other.proximityMaxAgeMillis;
         this.netheriteVaultHours = other.netheriteVaultHours;
         this.warDurationHours = other.warDurationHours;
         this.allianceRequestExpirationMinutes = other.allianceRequestExpirationMinutes;
+        this.saveIntervalSeconds = other.saveIntervalSeconds;
+        this.fsyncPolicy = other.fsyncPolicy;
+        this.storageMode = other.storageMode;
+        this.journalEnabled = other.journalEnabled;
+        this.journalCompactKb = other.journalCompactKb;
+        this.snapshotFormat = other.snapshotFormat;
+        this.snapshotCompression = other.snapshotCompression;
         this.warWinnerNetherite = other.warWinnerNetherite;
         this.warWinnerGold = other.warWinnerGold;
         this.warBuffDurationHours = other.warBuffDurationHours;
@@ -0,0 +1,105 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file through a temp file that is (optionally) fsynced and then
+ * moved over the target, so a crash mid-write never leaves a truncated file.
+ */
+public class AtomicFileWriter {
+
+    public enum FsyncPolicy {
+        ALWAYS,   // fsync every write
+        SHUTDOWN, // fsync only the final flush on server stop
+        NEVER;    // leave it to the OS
+
+        public static FsyncPolicy fromConfig(String value) {
+            if (value != null) {
+                for (FsyncPolicy policy : values()) {
+                    if (policy.name().equalsIgnoreCase(value.trim())) {
+                        return policy;
+                    }
+                }
+                Simpleclans.LOGGER.warn("Unknown fsync policy '{}', using ALWAYS", value);
+            }
+            return ALWAYS;
+        }
+
+        // Without a loaded config (early startup, tests) every write is synced
+        public static FsyncPolicy current() {
+            return Simpleclans.getConfig() != null ? fromConfig(Simpleclans.getConfig().fsyncPolicy) : ALWAYS;
+        }
+
+        public boolean shouldSync(boolean finalFlush) {
+            return this == ALWAYS || (this == SHUTDOWN && finalFlush);
+        }
+    }
+
+    @FunctionalInterface
+    public interface WriterAction {
+        void write(Writer writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamAction {
+        void write(OutputStream out) throws IOException;
+    }
+
+    public static void write(Path target, boolean fsync, WriterAction action) throws IOException {
+        writeStream(target, fsync, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            action.write(writer);
+            writer.flush();
+        });
+    }
+
+    // Binary variant; the action must not close the stream
+    public static void writeStream(Path target, boolean fsync, StreamAction action) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            action.write(out);
+            out.flush();
+            if (fsync) {
+                out.getChannel().force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        if (fsync) {
+            syncDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    // Persists the rename itself; not supported on every platform, so best effort
+    private static void syncDirectory(Path directory) {
+        if (directory == null) return;
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // Windows cannot open directories as channels
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary form of the whole clan snapshot (clans.dat).
+ * Layout: magic, version, flags, then the payload (deflated if flagged):
+ * a table of clan keys, the clans, player mappings and timers. Clan keys are
+ * written once and referenced by index, UUIDs are two longs and every
+ * collection is prefixed with its size.
+ */
+public final class ClanBinaryCodec {
+    public static final String FILE_NAME = "clans.dat";
+
+    private static final int MAGIC = 0x53434C42; // "SCLB"
+    private static final int VERSION = 2;
+    private static final int FLAG_DEFLATE = 1;
+
+    private ClanBinaryCodec() {}
+
+    /** Decoded contents of a binary snapshot. */
+    public static class Contents {
+        public final Map<String, Clan> clans;
+        public final Map<UUID, String> playerToClan;
+        public final Map<String, Long> timers;
+
+        public Contents(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers) {
+            this.clans = clans;
+            this.playerToClan = playerToClan;
+            this.timers = timers;
+        }
+    }
+
+    // Encodes the uncompressed payload; runs on the save worker over copies made by copyOf
+    public static byte[] encode(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers) throws IOException {
+        Map<String, Integer> keyIds = new LinkedHashMap<>();
+        for (Map.Entry<String, Clan> entry : clans.entrySet()) {
+            intern(keyIds, entry.getKey());
+            Clan clan = entry.getValue();
+            clan.getAllies().forEach(key -> intern(keyIds, key));
+            clan.getEnemies().forEach(key -> intern(keyIds, key));
+            clan.getNeutrals().forEach(key -> intern(keyIds, key));
+            if (clan.getWarTarget() != null) intern(keyIds, clan.getWarTarget());
+        }
+        playerToClan.values().forEach(key -> intern(keyIds, key));
+        timers.keySet().forEach(key -> intern(keyIds, key));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(keyIds.size());
+        for (String key : keyIds.keySet()) {
+            out.writeUTF(key);
+        }
+
+        out.writeInt(clans.size());
+        for (Map.Entry<String, Clan> entry : clans.entrySet()) {
+            Clan clan = entry.getValue();
+            out.writeInt(keyIds.get(entry.getKey()));
+            out.writeUTF(clan.getOriginalName() != null ? clan.getOriginalName() : entry.getKey());
+            writeUuid(out, clan.getKing());
+            writeUuids(out, clan.getAdvisors());
+            writeUuids(out, clan.getMembers());
+            writeKeys(out, keyIds, clan.getAllies());
+            writeKeys(out, keyIds, clan.getEnemies());
+            writeKeys(out, keyIds, clan.getNeutrals());
+            out.writeInt(clan.getNetheriteVault());
+            out.writeInt(clan.getTotalKills());
+            out.writeInt(clan.getTotalDeaths());
+            out.writeLong(clan.getCreatedTime());
+            out.writeLong(clan.getLastNetheriteConsumption());
+            out.writeBoolean(clan.isAtWar());
+            out.writeInt(clan.getWarTarget() != null ? keyIds.get(clan.getWarTarget()) : -1);
+
+            writeUuids(out, clan.getWarProgress().getKilled());
+        }
+
+        out.writeInt(playerToClan.size());
+        for (Map.Entry<UUID, String> entry : playerToClan.entrySet()) {
+            writeUuid(out, entry.getKey());
+            out.writeInt(keyIds.get(entry.getValue()));
+        }
+
+        out.writeInt(timers.size());
+        for (Map.Entry<String, Long> entry : timers.entrySet()) {
+            out.writeInt(keyIds.get(entry.getKey()));
+            out.writeLong(entry.getValue());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static void write(Path target, byte[] payload, boolean compress, boolean fsync) throws IOException {
+        AtomicFileWriter.writeStream(target, fsync, stream -> {
+            DataOutputStream header = new DataOutputStream(stream);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            header.writeByte(compress ? FLAG_DEFLATE : 0);
+            header.flush();
+
+            if (compress) {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try {
+                    DeflaterOutputStream deflated = new DeflaterOutputStream(stream, deflater, 8192);
+                    deflated.write(payload);
+                    deflated.finish();
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                stream.write(payload);
+            }
+        });
+    }
+
+    public static Contents read(Path source) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(source), 65536)) {
+            DataInputStream header = new DataInputStream(file);
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Not a clan snapshot: " + source);
+            }
+            int version = header.readUnsignedByte();
+            if (version > VERSION) {
+                throw new IOException("Unsupported clan snapshot version " + version + " in " + source);
+            }
+            int flags = header.readUnsignedByte();
+
+            InputStream payload = (flags & FLAG_DEFLATE) != 0 ? new InflaterInputStream(file, new Inflater(), 8192) : file;
+            return decode(new DataInputStream(payload), version);
+        }
+    }
+
+    private static Contents decode(DataInputStream in, int version) throws IOException {
+        int keyCount = in.readInt();
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(in.readUTF());
+        }
+
+        int clanCount = in.readInt();
+        Map<String, Clan> clans = new HashMap<>(Math.max(16, clanCount * 2));
+        for (int i = 0; i < clanCount; i++) {
+            String key = keys.get(in.readInt());
+            Clan clan = new Clan();
+            clan.setName(in.readUTF());
+            clan.setKing(readUuid(in));
+            clan.setAdvisors(readUuids(in));
+            clan.setMembers(readUuids(in));
+            clan.setAllies(readKeys(in, keys));
+            clan.setEnemies(readKeys(in, keys));
+            clan.setNeutrals(readKeys(in, keys));
+            clan.setNetheriteVault(in.readInt());
+            clan.setTotalKills(in.readInt());
+            clan.setTotalDeaths(in.readInt());
+            clan.setCreatedTime(in.readLong());
+            clan.setLastNetheriteConsumption(in.readLong());
+            clan.setAtWar(in.readBoolean());
+            int warTarget = in.readInt();
+            clan.setWarTarget(warTarget >= 0 ? keys.get(warTarget) : null);
+
+            // Version 1 stored the victims per killer, version 2 the killed enemy members
+            int killerCount = version < 2 ? in.readInt() : 1;
+            for (int k = 0; k < killerCount; k++) {
+                if (version < 2) readUuid(in);
+                for (UUID victim : readUuids(in)) {
+                    clan.getWarProgress().recordKill(victim);
+                }
+            }
+
+            // Version 1 also stored member names; they live in names.dat now
+            if (version < 2) {
+                int nameCount = in.readInt();
+                for (int n = 0; n < nameCount; n++) {
+                    clan.storeMemberName(readUuid(in), in.readUTF());
+                }
+            }
+            clans.put(key, clan);
+        }
+
+        int playerCount = in.readInt();
+        Map<UUID, String> playerToClan = new HashMap<>(Math.max(16, playerCount * 2));
+        for (int i = 0; i < playerCount; i++) {
+            playerToClan.put(readUuid(in), keys.get(in.readInt()));
+        }
+
+        int timerCount = in.readInt();
+        Map<String, Long> timers = new HashMap<>();
+        for (int i = 0; i < timerCount; i++) {
+            timers.put(keys.get(in.readInt()), in.readLong());
+        }
+
+        return new Contents(clans, playerToClan, timers);
+    }
+
+    // Value copy of everything encode writes, so a snapshot can be encoded off the server thread
+    public static Clan copyOf(Clan clan) {
+        Clan copy = new Clan();
+        copy.setName(clan.getOriginalName() != null ? clan.getOriginalName() : clan.getName());
+        copy.setKing(clan.getKing());
+        copy.setAdvisors(new HashSet<>(clan.getAdvisors()));
+        copy.setMembers(new HashSet<>(clan.getMembers()));
+        copy.setAllies(new HashSet<>(clan.getAllies()));
+        copy.setEnemies(new HashSet<>(clan.getEnemies()));
+        copy.setNeutrals(new HashSet<>(clan.getNeutrals()));
+        copy.setNetheriteVault(clan.getNetheriteVault());
+        copy.setTotalKills(clan.getTotalKills());
+        copy.setTotalDeaths(clan.getTotalDeaths());
+        copy.setCreatedTime(clan.getCreatedTime());
+        copy.setLastNetheriteConsumption(clan.getLastNetheriteConsumption());
+        copy.setAtWar(clan.isAtWar());
+        copy.setWarTarget(clan.getWarTarget());
+        for (UUID victim : clan.getWarProgress().getKilled()) {
+            copy.getWarProgress().recordKill(victim);
+        }
+        return copy;
+    }
+
+    private static void intern(Map<String, Integer> keyIds, String key) {
+        keyIds.putIfAbsent(key, keyIds.size());
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeUuids(DataOutputStream out, Collection<UUID> uuids) throws IOException {
+        out.writeInt(uuids.size());
+        for (UUID uuid : uuids) {
+            writeUuid(out, uuid);
+        }
+    }
+
+    private static Set<UUID> readUuids(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<UUID> uuids = new HashSet<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            uuids.add(readUuid(in));
+        }
+        return uuids;
+    }
+
+    private static void writeKeys(DataOutputStream out, Map<String, Integer> keyIds, Set<String> keys) throws IOException {
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            out.writeInt(keyIds.get(key));
+        }
+    }
+
+    private static Set<String> readKeys(DataInputStream in, List<String> keys) throws IOException {
+        int count = in.readInt();
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            result.add(keys.get(in.readInt()));
+        }
+        return result;
+    }
+}
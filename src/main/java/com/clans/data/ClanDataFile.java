@@ -0,0 +1,33 @@
+package com.clans.data;
+
+public enum ClanDataFile {
+    CLANS("clans.json"),
+    PLAYERS("players.json"),
+    TIMERS("timers.json");
+    
+    private final String fileName;
+    
+    ClanDataFile(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    int mask() {
+        return 1 << ordinal();
+    }
+    
+    static int maskOf(ClanDataFile... files) {
+        int mask = 0;
+        for (ClanDataFile file : files) {
+            mask |= file.mask();
+        }
+        return mask;
+    }
+    
+    static int allMask() {
+        return maskOf(values());
+    }
+}
@@ -2,8 +2,8 @@ package com.clans.data;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.clans.Simpleclans;
+import com.clans.config.ClanConfig;
 import com.clans.model.Clan;
 import com.clans.model.ClanInvitation;
 import com.clans.model.ClanRole;
@@ -12,23 +12,41 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.WorldSavePath;
 
 import java.io.*;
-import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class ClanDataManager {
-    private static final String DATA_DIR = "world/simpleclans/";
-    private static final String CLANS_FILE = "clans.json";
-    private static final String PLAYERS_FILE = "players.json";
-    private static final String TIMERS_FILE = "timers.json";
+    private static final String DATA_DIR_NAME = "simpleclans";
+    private static final String CLANS_FILE = ClanDataFile.CLANS.getFileName();
+    private static final String PLAYERS_FILE = ClanDataFile.PLAYERS.getFileName();
+    private static final String TIMERS_FILE = ClanDataFile.TIMERS.getFileName();
+    private static final String EXPORT_DIR = "export";
+    private static final String[] STORAGE_BACKENDS = {"single", "h2", "world"};
     
     private MinecraftServer server;
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final ClanTypeAdapter CLAN_ADAPTER = new ClanTypeAdapter();
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().registerTypeAdapter(Clan.class, CLAN_ADAPTER).create();
+    private final ClanSaveWorker saveWorker = new ClanSaveWorker(new SaveSource());
+    private Path dataDir = Paths.get("world", DATA_DIR_NAME); // replaced with the real world path on server start
+    private ClanStore store;
+    private final Gson compactGson = new GsonBuilder().registerTypeAdapter(Clan.class, CLAN_ADAPTER).create();
+    private volatile ClanJournal journal; // null unless journalEnabled
+    private volatile boolean journalReplayedIntoWorld = false; // segments are dropped once the world save has the data
     
     // In-memory data structures for performance
     private final Map<String, Clan> clans = new ConcurrentHashMap<>();
@@ -36,6 +54,13 @@ public class ClanDataManager {
     private final Map<UUID, ClanInvitation> pendingInvitations = new ConcurrentHashMap<>();
     private final Map<String, Long> clanTimers = new ConcurrentHashMap<>();
     private final Set<UUID> playersToNotify = ConcurrentHashMap.newKeySet();
+    private final ClanRelationIndex relations = new ClanRelationIndex();
+    private final ClanRelationMatrix relationMatrix = new ClanRelationMatrix();
+    private final ClanLeaderboard leaderboard = new ClanLeaderboard();
+    private final Clan.PowerListener powerTracker = this::onPowerChanged;
+    private final List<Clan.PowerListener> powerListeners = new CopyOnWriteArrayList<>();
+    private final PlayerNameIndex names = new PlayerNameIndex();
+    private final ClanOnlineIndex online = new ClanOnlineIndex();
     
     // War system state
     private boolean warsEnabled = false;
@@ -43,137 +68,439 @@ public class ClanDataManager {
     // FIXED: Alliance request tracking to prevent spam
     private final Map<String, Map<String, Long>> allianceRequests = new ConcurrentHashMap<>();
     
+    // Startup loading: completed once every file is in memory; clan operations wait for it
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final Map<String, Double> loadMillis = new ConcurrentHashMap<>();
+    private volatile double totalLoadMillis;
+    
+    // Resolves the data directory inside the world folder and starts loading in the background
     public void initialize(MinecraftServer server) {
         this.server = server;
-        createDataDirectory();
-        loadAllData();
-        Simpleclans.LOGGER.info("Clan data manager initialized successfully");
+        dataDir = server.getSavePath(WorldSavePath.ROOT).resolve(DATA_DIR_NAME).normalize();
+        names.setServer(server);
+        store = createStore(Simpleclans.getConfig().storageMode);
+        loadAsync();
     }
     
-    private void createDataDirectory() {
-        try {
-            Path dataDir = Paths.get(DATA_DIR);
-            if (!Files.exists(dataDir)) {
-                Files.createDirectories(dataDir);
-                Simpleclans.LOGGER.info("Created clan data directory: " + DATA_DIR);
-            }
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to create clan data directory", e);
+    private ClanStore createStore(String storageMode) {
+        if ("h2".equalsIgnoreCase(storageMode)) {
+            return new H2ClanStore(dataDir, compactGson);
         }
+        if ("world".equalsIgnoreCase(storageMode)) {
+            return new WorldClanStore(server, compactGson);
+        }
+        return new JsonClanStore(dataDir, gson, CLAN_ADAPTER);
     }
     
-    private void loadAllData() {
-        loadClans();
-        loadPlayerMappings();
-        loadTimers();
-        Simpleclans.LOGGER.info("Loaded all clan data successfully");
+    // Loads through the configured store on background threads; an empty store is seeded from another backend
+    private void loadAsync() {
+        ExecutorService loader = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "SimpleClans-Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        
+        CompletableFuture.runAsync(() -> {
+            boolean rewrite;
+            ClanStore source = store;
+            if (!store.hasData()) {
+                for (String backend : STORAGE_BACKENDS) {
+                    ClanStore other = createStore(backend);
+                    if (other.getClass() != store.getClass() && other.hasData()) {
+                        Simpleclans.LOGGER.info("Migrating clan data from {} storage to {}", other.getName(), store.getName());
+                        source = other;
+                        break;
+                    }
+                }
+            }
+            loadNameIndex();
+            try {
+                rewrite = source.load(clans, playerToClan, clanTimers, loader, loadMillis::put);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (source != store) source.close();
+            }
+            
+            if (rewrite || source != store) {
+                save();
+            }
+            replayJournal();
+            reconcileWarProgress();
+            if (migrateLegacyMemberNames()) {
+                save(ClanDataFile.CLANS);
+            }
+            relations.rebuild(clans.values());
+            relationMatrix.rebuild(clans.values());
+            applyPowerWeights();
+            clans.values().forEach(clan -> clan.setPowerListener(powerTracker));
+            leaderboard.rebuild(clans.values());
+            online.rebuild(playerToClan, clans);
+            startSaveWorker();
+            totalLoadMillis = (System.nanoTime() - start) / 1_000_000.0;
+            Simpleclans.LOGGER.info("Loaded {} clans and {} player mappings from {} storage in {} ms",
+                clans.size(), playerToClan.size(), store.getName(), String.format("%.1f", totalLoadMillis));
+            ready.complete(null);
+        }, loader).whenComplete((result, error) -> {
+            loader.shutdown();
+            if (error != null) {
+                // Stay gated: saving half-loaded data would overwrite what is on disk
+                Simpleclans.LOGGER.error("Failed to load clan data, clan features stay disabled", error);
+                ready.completeExceptionally(error);
+            }
+        });
     }
     
-    @SuppressWarnings("unchecked")
-    private void loadClans() {
+    private void loadNameIndex() {
+        long start = System.nanoTime();
         try {
-            File file = new File(DATA_DIR + CLANS_FILE);
-            if (file.exists()) {
-                try (FileReader reader = new FileReader(file)) {
-                    Type mapType = new TypeToken<Map<String, Clan>>(){}.getType();
-                    Map<String, Clan> loadedClans = gson.fromJson(reader, mapType);
-                    if (loadedClans != null) {
-                        clans.putAll(loadedClans);
-                        Simpleclans.LOGGER.info("Loaded {} clans", clans.size());
-                    }
-                }
+            names.load(dataDir);
+        } catch (IOException e) {
+            // Names only affect display; fall back to the user cache
+            Simpleclans.LOGGER.error("Failed to load player name index", e);
+        }
+        loadMillis.put(PlayerNameIndex.FILE_NAME, (System.nanoTime() - start) / 1_000_000.0);
+    }
+    
+    // Older saves kept a name map in every clan; move those into the index so clans are saved without them
+    private boolean migrateLegacyMemberNames() {
+        boolean migrated = false;
+        for (Clan clan : clans.values()) {
+            Map<UUID, String> legacy = clan.drainLegacyMemberNames();
+            legacy.forEach(names::putIfAbsent);
+            migrated |= !legacy.isEmpty();
+        }
+        if (migrated) {
+            // The clans are rewritten without these names, so names.dat has to hold them first
+            try {
+                names.saveIfDirty(dataDir, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to load clans", e);
         }
+        return migrated;
     }
     
-    @SuppressWarnings("unchecked")
-    private void loadPlayerMappings() {
+    // Writes names.dat if a name was added or changed
+    public void saveNameIndex(boolean finalFlush) {
+        boolean fsync = AtomicFileWriter.FsyncPolicy.current().shouldSync(finalFlush);
         try {
-            File file = new File(DATA_DIR + PLAYERS_FILE);
-            if (file.exists()) {
-                try (FileReader reader = new FileReader(file)) {
-                    Type mapType = new TypeToken<Map<String, String>>(){}.getType();
-                    Map<String, String> stringMappings = gson.fromJson(reader, mapType);
-                    if (stringMappings != null) {
-                        for (Map.Entry<String, String> entry : stringMappings.entrySet()) {
-                            try {
-                                UUID playerId = UUID.fromString(entry.getKey());
-                                playerToClan.put(playerId, entry.getValue());
-                            } catch (IllegalArgumentException e) {
-                                Simpleclans.LOGGER.warn("Invalid UUID in player mappings: " + entry.getKey());
-                            }
-                        }
-                        Simpleclans.LOGGER.info("Loaded {} player mappings", playerToClan.size());
-                    }
-                }
+            names.saveIfDirty(dataDir, fsync);
+        } catch (IOException e) {
+            Simpleclans.LOGGER.error("Failed to save player name index", e);
+        }
+    }
+    
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+    
+    public CompletableFuture<Void> getReadyFuture() {
+        return ready;
+    }
+    
+    public Map<String, Double> getLoadMillis() {
+        return new TreeMap<>(loadMillis);
+    }
+    
+    public double getTotalLoadMillis() {
+        return totalLoadMillis;
+    }
+    
+    // Marks all data dirty; the save worker writes it on its next cycle
+    public void save() {
+        saveWorker.markDirty();
+    }
+    
+    // Marks only the given files dirty so unchanged files are not rewritten
+    public void save(ClanDataFile... files) {
+        saveWorker.markDirty(files);
+    }
+    
+    // Marks only the given players' clan mappings dirty; row-level stores update just those rows
+    public void savePlayers(UUID... playerIds) {
+        saveWorker.markPlayersDirty(Arrays.asList(playerIds));
+    }
+    
+    // Marks only the given clans dirty; in sharded mode just their shard files are rewritten.
+    // Only the fallback when the journal is off: every clan change has its own journal entry.
+    public void saveClan(Clan... changedClans) {
+        List<String> keys = new ArrayList<>(changedClans.length);
+        for (Clan clan : changedClans) {
+            if (clan != null) keys.add(clan.getName());
+        }
+        if (!keys.isEmpty()) {
+            saveWorker.markClansDirty(keys);
+        }
+    }
+    
+    // Writes everything immediately on the calling thread
+    public boolean saveNow() {
+        saveWorker.markDirty();
+        return saveWorker.flush();
+    }
+    
+    private void startSaveWorker() {
+        // World storage is flushed by the server's own saves (see onWorldSave), so it needs neither a schedule nor a journal
+        if (store.savesWithWorld()) {
+            if (Simpleclans.getConfig().journalEnabled) {
+                Simpleclans.LOGGER.info("Clan journal is not used with world storage");
             }
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to load player mappings", e);
+            return;
+        }
+        saveWorker.start(Simpleclans.getConfig().saveIntervalSeconds);
+        
+        if (Simpleclans.getConfig().journalEnabled && journal == null) {
+            ClanJournal opened = createJournal();
+            try {
+                opened.open();
+                journal = opened;
+            } catch (IOException e) {
+                Simpleclans.LOGGER.error("Failed to open clan journal, falling back to snapshot saves", e);
+            }
+        }
+    }
+    
+    // Called before every autosave, save-all and shutdown save; hands pending changes to the world data
+    public void onWorldSave() {
+        if (!isReady() || !store.savesWithWorld()) return;
+        saveNameIndex(false);
+        saveWorker.flush();
+    }
+    
+    // Called after the world save; the replayed journal is now part of the saved world data
+    public void onWorldSaved() {
+        if (journalReplayedIntoWorld && !saveWorker.isDirty()) {
+            createJournal().deleteSegmentsBefore(Integer.MAX_VALUE);
+            journalReplayedIntoWorld = false;
         }
     }
     
-    @SuppressWarnings("unchecked")
-    private void loadTimers() {
+    public void shutdown() {
         try {
-            File file = new File(DATA_DIR + TIMERS_FILE);
-            if (file.exists()) {
-                try (FileReader reader = new FileReader(file)) {
-                    Type mapType = new TypeToken<Map<String, Long>>(){}.getType();
-                    Map<String, Long> loadedTimers = gson.fromJson(reader, mapType);
-                    if (loadedTimers != null) {
-                        clanTimers.putAll(loadedTimers);
-                        Simpleclans.LOGGER.info("Loaded {} clan timers", clanTimers.size());
-                    }
-                }
-            }
+            ready.get(30, TimeUnit.SECONDS);
         } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to load clan timers", e);
+            Simpleclans.LOGGER.warn("Clan data never finished loading, skipping the final save");
+            return;
+        }
+        
+        // Names before clans, as in every other flush
+        saveNameIndex(true);
+        ClanJournal current = journal;
+        if (current == null) {
+            saveWorker.shutdown();
+            closeStorage();
+            return;
+        }
+        
+        // Fold the whole log into a final snapshot, then drop the segments it covers
+        journal = null;
+        current.close();
+        int keepFrom = current.getCurrentSegment() + 1;
+        saveWorker.markDirty();
+        if (saveWorker.shutdown()) {
+            current.deleteSegmentsBefore(keepFrom);
         }
+        closeStorage();
     }
     
-    public void save() {
-        saveClans();
-        savePlayerMappings();
-        saveTimers();
+    private void closeStorage() {
+        if (store != null) store.close();
+    }
+    
+    private ClanJournal createJournal() {
+        long threshold = Math.max(16, Simpleclans.getConfig().journalCompactKb) * 1024L;
+        return new ClanJournal(dataDir, compactGson, threshold, this::compactJournal);
     }
     
-    private void saveClans() {
+    // Appends to the journal when it is enabled; false tells the caller to fall back to a snapshot save
+    private boolean journal(JournalEntry entry) {
+        ClanJournal current = journal;
+        if (current == null) return false;
+        current.append(entry);
+        return true;
+    }
+    
+    // Runs on the journal's compactor thread once the current segment grows past the threshold
+    private void compactJournal() {
+        ClanJournal current = journal;
+        if (current == null) return;
         try {
-            File file = new File(DATA_DIR + CLANS_FILE);
-            try (FileWriter writer = new FileWriter(file)) {
-                gson.toJson(clans, writer);
+            int keepFrom = current.rotate();
+            saveNameIndex(false);
+            saveWorker.markDirty();
+            if (saveWorker.flush()) {
+                current.deleteSegmentsBefore(keepFrom);
+                Simpleclans.LOGGER.info("Compacted clan journal into a new snapshot");
             }
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to save clans", e);
+        } catch (IOException e) {
+            Simpleclans.LOGGER.error("Failed to compact clan journal", e);
         }
     }
     
-    private void savePlayerMappings() {
-        try {
-            File file = new File(DATA_DIR + PLAYERS_FILE);
-            Map<String, String> stringMappings = new HashMap<>();
-            for (Map.Entry<UUID, String> entry : playerToClan.entrySet()) {
-                stringMappings.put(entry.getKey().toString(), entry.getValue());
+    // Replays journal segments left over from the last run on top of the loaded snapshot
+    private void replayJournal() {
+        ClanJournal reader = createJournal();
+        if (!reader.hasSegments()) return;
+        
+        int applied = reader.replay(this::applyJournalEntry);
+        Simpleclans.LOGGER.info("Replayed {} clan journal entries", applied);
+        // Replayed joins carry names; get them into names.dat before the snapshot drops the log
+        migrateLegacyMemberNames();
+        
+        if (store.savesWithWorld()) {
+            // Only safe to drop once the next world save has written the replayed data
+            save();
+            journalReplayedIntoWorld = true;
+        } else if (!Simpleclans.getConfig().journalEnabled && saveNow()) {
+            // Journal was switched off: the snapshot now holds everything, so drop the log
+            reader.deleteSegmentsBefore(Integer.MAX_VALUE);
+        }
+    }
+    
+    private void applyJournalEntry(JournalEntry entry) {
+        String key = entry.getClan();
+        Clan clan = key != null ? clans.get(key) : null;
+        
+        switch (entry.getType()) {
+            case CLAN_CREATED:
+                Clan created = gson.fromJson(entry.getData(), Clan.class);
+                clans.put(key, created);
+                playerToClan.put(created.getKing(), key);
+                clanTimers.put(key, entry.getTime());
+                break;
+            case CLAN_DISBANDED:
+                if (clan != null) {
+                    for (UUID member : clan.getMembers()) {
+                        playerToClan.remove(member, key);
+                    }
+                }
+                for (Clan otherClan : clans.values()) {
+                    otherClan.getAllies().remove(key);
+                    otherClan.getEnemies().remove(key);
+                    otherClan.getNeutrals().remove(key);
+                }
+                clans.remove(key);
+                clanTimers.remove(key);
+                break;
+            case MEMBER_JOINED:
+                if (clan != null) {
+                    clan.getMembers().add(entry.getPlayer());
+                    clan.storeMemberName(entry.getPlayer(), entry.getName());
+                    playerToClan.put(entry.getPlayer(), key);
+                }
+                break;
+            case MEMBER_LEFT:
+                if (clan != null) {
+                    clan.removeMember(entry.getPlayer());
+                    forgetWarKill(clan, entry.getPlayer());
+                }
+                playerToClan.remove(entry.getPlayer(), key);
+                break;
+            case DIPLOMACY_CHANGED:
+                Clan target = clans.get(entry.getTarget());
+                if (clan != null && target != null) {
+                    setRelation(clan, target, entry.getRelation());
+                }
+                break;
+            case VAULT_CHANGED:
+                if (clan != null) {
+                    clan.setNetheriteVault(entry.getValue());
+                    clan.setLastNetheriteConsumption(entry.getTime());
+                }
+                break;
+            case KILL_RECORDED:
+                if (clan != null) {
+                    clan.setTotalKills(entry.getValue());
+                    recordWarKill(clan, entry.getVictim());
+                }
+                break;
+            case DEATH_RECORDED:
+                if (clan != null) {
+                    clan.setTotalDeaths(entry.getValue());
+                }
+                break;
+            case KING_CHANGED:
+                if (clan != null) {
+                    clan.transferKing(entry.getPlayer());
+                }
+                break;
+            case ADVISOR_CHANGED:
+                if (clan != null) {
+                    if (entry.getValue() != 0) {
+                        clan.getAdvisors().add(entry.getPlayer());
+                    } else {
+                        clan.getAdvisors().remove(entry.getPlayer());
+                    }
+                }
+                break;
+            case WAR_STARTED:
+                Clan opponent = clans.get(entry.getTarget());
+                if (clan != null && opponent != null) {
+                    clan.startWar(opponent.getName());
+                    opponent.startWar(clan.getName());
+                }
+                break;
+            case WAR_ENDED:
+                if (clan != null) clan.resetWar();
+                Clan former = clans.get(entry.getTarget());
+                if (former != null) former.resetWar();
+                break;
+        }
+    }
+    
+    public ClanSaveWorker getSaveWorker() {
+        return saveWorker;
+    }
+    
+    // Live state is only read on the server thread (or directly while the server is not running)
+    private class SaveSource implements ClanSaveWorker.Source {
+        @Override
+        public <T> T onDataThread(Supplier<T> task) throws TimeoutException, ExecutionException, InterruptedException {
+            if (server == null || !server.isRunning() || server.isOnThread()) {
+                return task.get();
             }
-            try (FileWriter writer = new FileWriter(file)) {
-                gson.toJson(stringMappings, writer);
+            // Whoever claims first wins: the task skips itself if the wait already gave up on it
+            AtomicBoolean claimed = new AtomicBoolean();
+            CompletableFuture<T> result = server.submit(() -> claimed.compareAndSet(false, true) ? task.get() : null);
+            try {
+                return result.get(5, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) throw e;
+                return result.get(); // already running on the server thread, so it finishes shortly
             }
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to save player mappings", e);
+        }
+        
+        @Override
+        public ClanDataSnapshot captureSnapshot(ClanDirtySet dirty) {
+            return store.capture(clans, playerToClan, clanTimers, dirty);
+        }
+        
+        @Override
+        public void writeSnapshot(ClanDataSnapshot snapshot, boolean fsync) throws IOException {
+            store.write(snapshot, fsync);
+        }
+        
+        @Override
+        public void saveNameIndex(boolean finalFlush) {
+            ClanDataManager.this.saveNameIndex(finalFlush);
         }
     }
     
-    private void saveTimers() {
-        try {
-            File file = new File(DATA_DIR + TIMERS_FILE);
-            try (FileWriter writer = new FileWriter(file)) {
-                gson.toJson(clanTimers, writer);
-            }
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Failed to save clan timers", e);
+    // Debug export of the live data as pretty JSON under export/, whatever the configured format
+    public Path exportJson() throws IOException {
+        Path exportDir = dataDir.resolve(EXPORT_DIR);
+        Files.createDirectories(exportDir);
+        
+        Map<String, String> stringMappings = new HashMap<>();
+        for (Map.Entry<UUID, String> entry : playerToClan.entrySet()) {
+            stringMappings.put(entry.getKey().toString(), entry.getValue());
         }
+        AtomicFileWriter.write(exportDir.resolve(CLANS_FILE), false, writer -> gson.toJson(clans, writer));
+        AtomicFileWriter.write(exportDir.resolve(PLAYERS_FILE), false, writer -> gson.toJson(stringMappings, writer));
+        AtomicFileWriter.write(exportDir.resolve(TIMERS_FILE), false, writer -> gson.toJson(clanTimers, writer));
+        return exportDir;
     }
     
     // Enhanced clan operations
@@ -187,11 +514,20 @@ public class ClanDataManager {
         if (playerToClan.containsKey(kingId)) return false;
         
         Clan clan = new Clan(name, kingId);
+        long now = System.currentTimeMillis();
+        relationMatrix.assign(clan);
         clans.put(clan.getName(), clan);
+        clan.setPowerListener(powerTracker);
+        leaderboard.update(clan);
         playerToClan.put(kingId, clan.getName());
-        clanTimers.put(clan.getName(), System.currentTimeMillis());
+        online.memberAdded(clan, kingId);
+        clanTimers.put(clan.getName(), now);
         
-        save();
+        if (!journal(JournalEntry.clanCreated(clan.getName(), compactGson.toJsonTree(clan), now))) {
+            saveClan(clan);
+            savePlayers(kingId);
+            save(ClanDataFile.TIMERS);
+        }
         return true;
     }
     
@@ -210,17 +546,30 @@ public class ClanDataManager {
             playerToClan.remove(member);
         }
         
-        // Clean up bidirectional relationships
-        for (Clan otherClan : clans.values()) {
-            otherClan.getAllies().remove(key);
-            otherClan.getEnemies().remove(key);
-            otherClan.getNeutrals().remove(key);
+        // Clean up bidirectional relationships; the reverse index names the only clans that can mention this one
+        List<String> changedKeys = new ArrayList<>();
+        changedKeys.add(key);
+        relationMatrix.release(clan);
+        clan.setPowerListener(null);
+        leaderboard.remove(key);
+        online.clanRemoved(key);
+        for (String otherKey : relations.removeClan(clan)) {
+            Clan otherClan = clans.get(otherKey);
+            if (otherClan == null) continue;
+            boolean changed = otherClan.getAllies().remove(key);
+            changed |= otherClan.getEnemies().remove(key);
+            changed |= otherClan.getNeutrals().remove(key);
+            if (changed) changedKeys.add(otherKey);
         }
         
         clans.remove(key);
         clanTimers.remove(key);
         
-        save();
+        if (!journal(JournalEntry.clanDisbanded(key))) {
+            saveWorker.markClansDirty(changedKeys);
+            saveWorker.markPlayersDirty(clan.getMembers());
+            save(ClanDataFile.TIMERS);
+        }
         return true;
     }
     
@@ -235,12 +584,17 @@ public class ClanDataManager {
             return false;
         }
         
-        if (!clan.addMember(playerId, getPlayerName(playerId))) return false;
+        String playerName = getPlayerName(playerId);
+        if (!clan.addMember(playerId)) return false;
         
         playerToClan.put(playerId, key);
+        online.memberAdded(clan, playerId);
         pendingInvitations.remove(playerId);
         
-        save();
+        if (!journal(JournalEntry.memberJoined(key, playerId, playerName))) {
+            saveClan(clan);
+            savePlayers(playerId);
+        }
         return true;
     }
     
@@ -253,9 +607,14 @@ public class ClanDataManager {
         if (clan.isKing(playerId)) return false;
         
         clan.removeMember(playerId);
+        forgetWarKill(clan, playerId);
         playerToClan.remove(playerId);
+        online.memberRemoved(clanKey, playerId);
         
-        save();
+        if (!journal(JournalEntry.memberLeft(clanKey, playerId))) {
+            saveClan(clan);
+            savePlayers(playerId);
+        }
         return true;
     }
     
@@ -265,6 +624,35 @@ public class ClanDataManager {
         Clan clan2 = getClan(clan2Name);
         if (clan1 == null || clan2 == null) return;
         
+        applyDiplomacy(clan1, clan2, relationType);
+        
+        switch (relationType.toLowerCase()) {
+            case "enemy":
+                // Notify target clan
+                Text enemyNotification = Text.literal(clan1.getOriginalName() + " has declared you as an enemy!")
+                    .formatted(Formatting.RED);
+                ClanUtils.broadcastToClan(clan2, enemyNotification);
+                break;
+            case "neutral":
+                // Notify target clan
+                Text neutralNotification = Text.literal(clan1.getOriginalName() + " has set you as neutral.")
+                    .formatted(Formatting.YELLOW);
+                ClanUtils.broadcastToClan(clan2, neutralNotification);
+                break;
+        }
+    }
+    
+    // Sets the bidirectional relation between two clans and persists it, without notifications
+    public void applyDiplomacy(Clan clan1, Clan clan2, String relationType) {
+        String relation = relationType.toLowerCase();
+        setRelation(clan1, clan2, relation);
+        
+        if (!journal(JournalEntry.diplomacyChanged(clan1.getName(), clan2.getName(), relation))) {
+            saveClan(clan1, clan2);
+        }
+    }
+    
+    private void setRelation(Clan clan1, Clan clan2, String relation) {
         String clan1Key = clan1.getName();
         String clan2Key = clan2.getName();
         
@@ -278,7 +666,7 @@ public class ClanDataManager {
         clan2.getNeutrals().remove(clan1Key);
         
         // Set new relationship for both clans
-        switch (relationType.toLowerCase()) {
+        switch (relation) {
             case "ally":
                 clan1.getAllies().add(clan2Key);
                 clan2.getAllies().add(clan1Key);
@@ -286,31 +674,126 @@ public class ClanDataManager {
             case "enemy":
                 clan1.getEnemies().add(clan2Key);
                 clan2.getEnemies().add(clan1Key);
-                
-                // Notify target clan
-                Text enemyNotification = Text.literal(clan1.getOriginalName() + " has declared you as an enemy!")
-                    .formatted(Formatting.RED);
-                ClanUtils.broadcastToClan(clan2, enemyNotification, server);
                 break;
             case "neutral":
                 clan1.getNeutrals().add(clan2Key);
                 clan2.getNeutrals().add(clan1Key);
-                
-                // Notify target clan
-                Text neutralNotification = Text.literal(clan1.getOriginalName() + " has set you as neutral.")
-                    .formatted(Formatting.YELLOW);
-                ClanUtils.broadcastToClan(clan2, neutralNotification, server);
                 break;
         }
-        
-        save();
+        relations.refresh(clan1, clan2Key);
+        relations.refresh(clan2, clan1Key);
+        int code = ClanRelationMatrix.fromName(relation);
+        relationMatrix.set(clan1, clan2, code);
+        relationMatrix.set(clan2, clan1, code);
+    }
+    
+    // Allocation-free relation lookup for hot paths; one of the ClanRelationMatrix constants
+    public int getRelation(Clan from, Clan to) {
+        return relationMatrix.get(from, to);
+    }
+    
+    // Same lookup by relation ids, e.g. the ones cached on ClanPlayer
+    public int getRelation(int fromId, int toId) {
+        return relationMatrix.get(fromId, toId);
+    }
+    
+    // Checks the reverse relation index against the clans' own sets and rebuilds it if needed
+    public int verifyRelationIndex() {
+        int mismatches = relations.verify(clans.values());
+        relationMatrix.rebuild(clans.values());
+        online.refreshClanIds();
+        if (mismatches > 0) {
+            Simpleclans.LOGGER.warn("Clan relation index was out of sync for {} clans, rebuilt it", mismatches);
+        }
+        return mismatches;
+    }
+    
+    // Vault, kill and death updates are the hot mutations, so they get compact journal entries
+    public void updateVault(Clan clan, int netherite) {
+        clan.setNetheriteVault(netherite);
+        if (!journal(JournalEntry.vaultChanged(clan.getName(), netherite, clan.getLastNetheriteConsumption()))) {
+            saveClan(clan);
+        }
+    }
+    
+    public void recordKill(Clan clan, UUID killer, UUID victim) {
+        clan.addKill();
+        recordWarKill(clan, victim);
+        if (!journal(JournalEntry.killRecorded(clan.getName(), killer, victim, clan.getTotalKills()))) {
+            saveClan(clan);
+        }
+    }
+    
+    private void recordWarKill(Clan clan, UUID victim) {
+        String warTarget = clan.getWarTarget();
+        if (warTarget != null && warTarget.equals(playerToClan.get(victim))) {
+            clan.addWarKill(victim);
+        }
+    }
+    
+    // A member leaving a clan at war no longer counts towards the enemy's victory
+    private void forgetWarKill(Clan clan, UUID playerId) {
+        Clan enemy = clan.isAtWar() && clan.getWarTarget() != null ? clans.get(clan.getWarTarget()) : null;
+        if (enemy != null) enemy.getWarProgress().memberLeft(playerId);
+    }
+    
+    // Older saves kept every victim per killer; keep only current members of each war target
+    private void reconcileWarProgress() {
+        for (Clan clan : clans.values()) {
+            Clan enemy = clan.isAtWar() && clan.getWarTarget() != null ? clans.get(clan.getWarTarget()) : null;
+            if (enemy != null) {
+                clan.getWarProgress().retainMembers(enemy.getMembers());
+            } else {
+                clan.getWarProgress().clear();
+            }
+        }
+    }
+    
+    // Leadership, advisor and war changes also get their own entries instead of a full clan record
+    public boolean transferKing(Clan clan, UUID newKing) {
+        if (!clan.transferKing(newKing)) return false;
+        if (!journal(JournalEntry.kingChanged(clan.getName(), newKing))) {
+            saveClan(clan);
+        }
+        return true;
+    }
+    
+    public void addAdvisor(Clan clan, UUID playerId) {
+        clan.getAdvisors().add(playerId);
+        if (!journal(JournalEntry.advisorChanged(clan.getName(), playerId, true))) {
+            saveClan(clan);
+        }
+    }
+    
+    public void startWar(Clan clan, Clan target) {
+        clan.startWar(target.getName());
+        target.startWar(clan.getName());
+        if (!journal(JournalEntry.warStarted(clan.getName(), target.getName()))) {
+            saveClan(clan, target);
+        }
+    }
+    
+    public void endWar(Clan winner, Clan loser) {
+        winner.resetWar();
+        loser.resetWar();
+        if (!journal(JournalEntry.warEnded(winner.getName(), loser.getName()))) {
+            saveClan(winner, loser);
+        }
+    }
+    
+    public void recordDeath(Clan clan) {
+        clan.addDeath();
+        if (!journal(JournalEntry.deathRecorded(clan.getName(), clan.getTotalDeaths()))) {
+            saveClan(clan);
+        }
     }
     
     // NEW: Check if already allied to prevent duplicate alliances
     public boolean areAllied(String clan1Name, String clan2Name) {
         Clan clan1 = getClan(clan1Name);
-        if (clan1 == null) return false;
-        return clan1.getAllies().contains(clan2Name.toLowerCase());
+        Clan clan2 = getClan(clan2Name);
+        if (clan1 == null || clan2 == null) return false;
+        return relationMatrix.get(clan1, clan2) == ClanRelationMatrix.ALLY;
     }
     
     // Invitation system
@@ -344,6 +827,17 @@ public class ClanDataManager {
     public void onPlayerJoin(ServerPlayerEntity player) {
         UUID playerId = player.getUuid();
         ClanMemberStatus.setOnline(playerId);
+        names.put(playerId, player.getName().getString());
+        
+        if (!isReady()) {
+            // Clan membership and notifications need the clan data; the online index is rebuilt on ready
+            online.playerJoined(player, null);
+            ready.thenRunAsync(() -> {
+                if (!player.isDisconnected()) onPlayerJoin(player);
+            }, server);
+            return;
+        }
+        online.playerJoined(player, getPlayerClan(playerId));
         
         // Check for notifications
         if (playersToNotify.contains(playerId)) {
@@ -368,6 +862,16 @@ public class ClanDataManager {
     
     public void onPlayerDisconnect(ServerPlayerEntity player) {
         ClanMemberStatus.setOffline(player.getUuid());
+        online.playerLeft(player.getUuid(), playerToClan.get(player.getUuid()));
+    }
+    
+    public void onPlayerRespawn(ServerPlayerEntity player) {
+        online.playerRespawned(player, getPlayerClan(player.getUuid()));
+    }
+    
+    // Online members of a clan without a player lookup per member
+    public List<ServerPlayerEntity> getOnlineMembers(Clan clan) {
+        return online.getOnlineMembers(clan.getName());
     }
     
     // Getters
@@ -395,10 +899,42 @@ public class ClanDataManager {
     }
     
     public List<Clan> getTopClans(int limit) {
-        return clans.values().stream()
-            .sorted((a, b) -> Integer.compare(b.calculatePower(), a.calculatePower()))
-            .limit(limit)
-            .toList();
+        return leaderboard.top(limit);
+    }
+    
+    // 1-based leaderboard position, 0 if the clan is unknown
+    public int getClanRank(Clan clan) {
+        return leaderboard.rankOf(clan.getName());
+    }
+    
+    // Cached power; only recomputed when one of its inputs changed
+    public int getClanPower(Clan clan) {
+        return clan.calculatePower();
+    }
+    
+    // Listeners are told whenever a tracked clan's power changes, e.g. to refresh external boards
+    public void addPowerListener(Clan.PowerListener listener) {
+        powerListeners.add(listener);
+    }
+    
+    public void removePowerListener(Clan.PowerListener listener) {
+        powerListeners.remove(listener);
+    }
+    
+    private void onPowerChanged(Clan clan, int oldPower, int newPower) {
+        leaderboard.update(clan);
+        for (Clan.PowerListener listener : powerListeners) {
+            listener.onPowerChanged(clan, oldPower, newPower);
+        }
+    }
+    
+    // Pushes the configured weights into every clan's cached power; changed scores re-rank through the listener
+    public void applyPowerWeights() {
+        ClanConfig config = Simpleclans.getConfig();
+        Clan.setPowerWeights(config.netheriteWeight, config.killWeight, config.deathWeight);
+        for (Clan clan : clans.values()) {
+            clan.refreshPower();
+        }
     }
     
     // War system
@@ -421,9 +957,13 @@ public class ClanDataManager {
         String clanKey = playerToClan.get(playerId);
         if (clanKey != null) {
             Clan clan = clans.get(clanKey);
+            boolean journaled = false;
             if (clan != null) {
                 // 🆕 Remove from clan's member set (was missing!)
                 clan.removeMember(playerId);
+                forgetWarKill(clan, playerId);
+                online.memberRemoved(clanKey, playerId);
+                journaled = journal(JournalEntry.memberLeft(clanKey, playerId));
                 
                 // 🆕 Auto-disband if clan becomes empty
                 if (clan.getMembers().isEmpty()) {
@@ -433,7 +973,10 @@ public class ClanDataManager {
             }
             // Remove from global mapping
             playerToClan.remove(playerId);
-            save();
+            if (!journaled) {
+                if (clan != null) saveClan(clan);
+                savePlayers(playerId);
+            }
         }
     }
     
@@ -454,20 +997,27 @@ public class ClanDataManager {
         return server;
     }
 
-    private String getPlayerName(UUID playerId) {
+    // Online name first, then the name index (backed by the user cache); O(1) either way
+    public String getPlayerName(UUID playerId) {
         if (server != null) {
             ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerId);
             if (player != null) {
                 return player.getName().getString();
             }
         }
-        return "Unknown";
+        String name = names.getName(playerId);
+        return name != null ? name : "Unknown";
     }
-
-    public void load() {
-        loadClans();
-        loadPlayerMappings();
-        loadTimers();
+    
+    // Resolves an online or previously seen player by name; null if unknown
+    public UUID findPlayerId(String playerName) {
+        if (server != null) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerName);
+            if (player != null) {
+                return player.getUuid();
+            }
+        }
+        return names.findByName(playerName);
     }
 
     public void setServer(MinecraftServer server) {
@@ -537,15 +1087,10 @@ public class ClanDataManager {
     // FIXED: Diplomacy status checking to prevent command spam
     public String getCurrentDiplomacyStatus(String clan1Name, String clan2Name) {
         Clan clan1 = getClan(clan1Name);
-        if (clan1 == null) return "neutral";
-        
-        String clan2Key = clan2Name.toLowerCase();
-        
-        if (clan1.getAllies().contains(clan2Key)) return "ally";
-        if (clan1.getEnemies().contains(clan2Key)) return "enemy";
-        if (clan1.getNeutrals().contains(clan2Key)) return "neutral";
+        Clan clan2 = getClan(clan2Name);
+        if (clan1 == null || clan2 == null) return "neutral";
         
-        return "neutral"; // Default relationship
+        return ClanRelationMatrix.nameOf(relationMatrix.get(clan1, clan2)); // unset pairs are neutral
     }
     
     public boolean isAlreadyInDiplomacyState(String clan1Name, String clan2Name, String desiredState) {
@@ -0,0 +1,68 @@
+package com.clans.data;
+
+import com.google.gson.JsonElement;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Point-in-time copy of the clan data, taken on the server thread and
+ * written to disk by {@link ClanSaveWorker} without touching live state.
+ * Each {@link ClanStore} fills only the parts its format needs.
+ */
+public class ClanDataSnapshot {
+    private final JsonElement clans;
+    private final Map<String, JsonElement> clanRows; // null value = clan was removed
+    private final boolean fullClanRewrite;
+    private final Map<String, String> playerMappings;
+    private final Map<UUID, String> playerRows;      // null value = mapping was removed
+    private final boolean fullPlayerRewrite;
+    private final Map<String, Long> timers;
+    private final Map<String, Long> timerRows;       // null value = timer was removed
+    private final boolean fullTimerRewrite;
+    private final ClanBinaryCodec.Contents binary; // copied state in binary mode, encoded by the save worker
+
+    public ClanDataSnapshot(JsonElement clans, Map<String, JsonElement> clanRows, boolean fullClanRewrite,
+                            Map<String, String> playerMappings, Map<String, Long> timers) {
+        this(clans, clanRows, fullClanRewrite, playerMappings, null, false, timers, null, false, null);
+    }
+
+    public ClanDataSnapshot(ClanBinaryCodec.Contents binary) {
+        this(null, null, true, null, null, false, null, null, false, binary);
+    }
+
+    private ClanDataSnapshot(JsonElement clans, Map<String, JsonElement> clanRows, boolean fullClanRewrite,
+                             Map<String, String> playerMappings, Map<UUID, String> playerRows, boolean fullPlayerRewrite,
+                             Map<String, Long> timers, Map<String, Long> timerRows, boolean fullTimerRewrite,
+                             ClanBinaryCodec.Contents binary) {
+        this.clans = clans;
+        this.clanRows = clanRows;
+        this.fullClanRewrite = fullClanRewrite;
+        this.playerMappings = playerMappings;
+        this.playerRows = playerRows;
+        this.fullPlayerRewrite = fullPlayerRewrite;
+        this.timers = timers;
+        this.timerRows = timerRows;
+        this.fullTimerRewrite = fullTimerRewrite;
+        this.binary = binary;
+    }
+
+    // Row-level change set for stores that update individual records
+    public static ClanDataSnapshot rows(Map<String, JsonElement> clanRows, boolean fullClanRewrite,
+                                        Map<UUID, String> playerRows, boolean fullPlayerRewrite,
+                                        Map<String, Long> timerRows, boolean fullTimerRewrite) {
+        return new ClanDataSnapshot(null, clanRows, fullClanRewrite, null, playerRows, fullPlayerRewrite,
+            null, timerRows, fullTimerRewrite, null);
+    }
+
+    public JsonElement getClans() { return clans; }
+    public Map<String, JsonElement> getClanRows() { return clanRows; }
+    public boolean isFullClanRewrite() { return fullClanRewrite; }
+    public Map<String, String> getPlayerMappings() { return playerMappings; }
+    public Map<UUID, String> getPlayerRows() { return playerRows; }
+    public boolean isFullPlayerRewrite() { return fullPlayerRewrite; }
+    public Map<String, Long> getTimers() { return timers; }
+    public Map<String, Long> getTimerRows() { return timerRows; }
+    public boolean isFullTimerRewrite() { return fullTimerRewrite; }
+    public ClanBinaryCodec.Contents getBinary() { return binary; }
+}
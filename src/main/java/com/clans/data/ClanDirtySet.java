@@ -0,0 +1,39 @@
+package com.clans.data;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What changed since the last flush, drained from {@link ClanSaveWorker}.
+ * File-based stores mostly look at the file mask; row-based stores use the
+ * clan keys and player ids to write only the affected rows.
+ */
+public class ClanDirtySet {
+    private final int files;
+    private final boolean allClans;
+    private final Set<String> clanKeys;
+    private final boolean allPlayers;
+    private final Set<UUID> playerIds;
+    private final boolean allTimers;
+
+    public ClanDirtySet(int files, boolean allClans, Set<String> clanKeys, boolean allPlayers, Set<UUID> playerIds,
+                        boolean allTimers) {
+        this.files = files;
+        this.allClans = allClans;
+        this.clanKeys = clanKeys;
+        this.allPlayers = allPlayers;
+        this.playerIds = playerIds;
+        this.allTimers = allTimers;
+    }
+
+    public boolean isDirty(ClanDataFile file) {
+        return (files & file.mask()) != 0;
+    }
+
+    public int getFiles() { return files; }
+    public boolean isAllClans() { return allClans; }
+    public Set<String> getClanKeys() { return clanKeys; }
+    public boolean isAllPlayers() { return allPlayers; }
+    public Set<UUID> getPlayerIds() { return playerIds; }
+    public boolean isAllTimers() { return allTimers; }
+}
@@ -0,0 +1,277 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead log for clan mutations.
+ * Entries are queued by the caller and group-committed by a writer thread;
+ * once the current segment passes the size threshold a compactor folds the
+ * log into a fresh snapshot and deletes the old segments.
+ */
+public class ClanJournal {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long COMMIT_LINGER_MILLIS = 20;
+
+    private final Path dataDir;
+    private final Gson gson;
+    private final long compactThreshold;
+    private final Runnable compactor;
+
+    private final BlockingQueue<JournalEntry> pending = new LinkedBlockingQueue<>();
+    private final Object segmentLock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    private ExecutorService writerThread;
+    private ExecutorService compactorThread;
+    private volatile boolean running = false;
+
+    private int segment;
+    private FileOutputStream segmentOut;
+    private long segmentBytes;
+
+    public ClanJournal(Path dataDir, Gson gson, long compactThreshold, Runnable compactor) {
+        this.dataDir = dataDir;
+        this.gson = gson;
+        this.compactThreshold = compactThreshold;
+        this.compactor = compactor;
+    }
+
+    // Replays every existing segment in order; a torn last line from a crash is skipped
+    public int replay(Consumer<JournalEntry> applier) {
+        int applied = 0;
+        for (Path file : listSegments()) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        JournalEntry entry = gson.fromJson(line, JournalEntry.class);
+                        if (entry != null && entry.getType() != null) {
+                            applier.accept(entry);
+                            applied++;
+                        }
+                    } catch (JsonParseException e) {
+                        Simpleclans.LOGGER.warn("Skipping corrupt journal entry in {}", file.getFileName());
+                    }
+                }
+            } catch (IOException e) {
+                Simpleclans.LOGGER.error("Failed to replay journal segment " + file, e);
+            }
+        }
+        return applied;
+    }
+
+    public boolean hasSegments() {
+        return !listSegments().isEmpty();
+    }
+
+    public void open() throws IOException {
+        Files.createDirectories(dataDir);
+        synchronized (segmentLock) {
+            segment = highestSegment() + 1;
+            openSegment();
+        }
+
+        running = true;
+        writerThread = Executors.newSingleThreadExecutor(runnable -> newDaemon(runnable, "SimpleClans-JournalWriter"));
+        compactorThread = Executors.newSingleThreadExecutor(runnable -> newDaemon(runnable, "SimpleClans-JournalCompactor"));
+        writerThread.execute(this::writeLoop);
+
+        Simpleclans.LOGGER.info("Clan journal opened (segment {})", segment);
+    }
+
+    public void append(JournalEntry entry) {
+        pending.add(entry);
+    }
+
+    // Starts a new segment; everything written before this call is in older segments
+    public int rotate() throws IOException {
+        synchronized (segmentLock) {
+            closeSegment();
+            segment++;
+            openSegment();
+            return segment;
+        }
+    }
+
+    public void deleteSegmentsBefore(int keepFrom) {
+        for (Path file : listSegments()) {
+            if (segmentIndex(file) < keepFrom) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    Simpleclans.LOGGER.warn("Failed to delete journal segment {}", file.getFileName());
+                }
+            }
+        }
+    }
+
+    // Stops the writer after committing everything still queued
+    public void close() {
+        running = false;
+        shutdownExecutor(compactorThread);
+        shutdownExecutor(writerThread);
+        synchronized (segmentLock) {
+            try {
+                commit(drainPending());
+            } catch (IOException e) {
+                Simpleclans.LOGGER.error("Failed to commit final journal entries", e);
+            }
+            closeSegment();
+        }
+    }
+
+    public int getCurrentSegment() {
+        synchronized (segmentLock) {
+            return segment;
+        }
+    }
+
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    private void writeLoop() {
+        while (running || !pending.isEmpty()) {
+            try {
+                JournalEntry first = pending.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                // Let concurrent mutations pile up so one write commits the whole group
+                Thread.sleep(COMMIT_LINGER_MILLIS);
+                List<JournalEntry> batch = new ArrayList<>();
+                batch.add(first);
+                pending.drainTo(batch);
+
+                synchronized (segmentLock) {
+                    commit(batch);
+                }
+                maybeCompact();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                Simpleclans.LOGGER.error("Failed to write clan journal", e);
+            }
+        }
+    }
+
+    private void commit(List<JournalEntry> batch) throws IOException {
+        if (batch.isEmpty() || segmentOut == null) return;
+
+        StringBuilder lines = new StringBuilder();
+        for (JournalEntry entry : batch) {
+            lines.append(gson.toJson(entry)).append('\n');
+        }
+        // Count the encoded bytes, not chars, so the threshold matches Files.size after a rotation
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        segmentOut.write(bytes);
+        if (AtomicFileWriter.FsyncPolicy.current() == AtomicFileWriter.FsyncPolicy.ALWAYS) {
+            segmentOut.getChannel().force(false);
+        }
+        segmentBytes += bytes.length;
+    }
+
+    private void maybeCompact() {
+        if (segmentBytes < compactThreshold || !compacting.compareAndSet(false, true)) return;
+
+        compactorThread.execute(() -> {
+            try {
+                compactor.run();
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    private List<JournalEntry> drainPending() {
+        List<JournalEntry> batch = new ArrayList<>();
+        pending.drainTo(batch);
+        return batch;
+    }
+
+    private void openSegment() throws IOException {
+        Path file = dataDir.resolve(SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+        segmentOut = new FileOutputStream(file.toFile(), true);
+        segmentBytes = Files.size(file);
+    }
+
+    private void closeSegment() {
+        if (segmentOut == null) return;
+        try {
+            segmentOut.close();
+        } catch (IOException e) {
+            Simpleclans.LOGGER.warn("Failed to close journal segment {}", segment);
+        }
+        segmentOut = null;
+    }
+
+    private int highestSegment() {
+        int highest = 0;
+        for (Path file : listSegments()) {
+            highest = Math.max(highest, segmentIndex(file));
+        }
+        return highest;
+    }
+
+    private List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(dataDir)) return segments;
+
+        try (Stream<Path> stream = Files.list(dataDir)) {
+            stream.filter(path -> segmentIndex(path) >= 0).forEach(segments::add);
+        } catch (IOException e) {
+            Simpleclans.LOGGER.error("Failed to list journal segments", e);
+        }
+        segments.sort((a, b) -> Integer.compare(segmentIndex(a), segmentIndex(b)));
+        return segments;
+    }
+
+    private static int segmentIndex(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) return -1;
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Thread newDaemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void shutdownExecutor(ExecutorService executor) {
+        if (executor == null || executor.isShutdown()) return;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Clans ordered by power (highest first, ties by name) in an indexable skip
+ * list. Each forward link records how many nodes it skips, so top-N is a
+ * walk from the head and a clan's rank is O(log n); nothing is re-sorted
+ * when a command asks for the board. Callers re-index a clan whenever
+ * something that feeds its power changes.
+ */
+public class ClanLeaderboard {
+    private static final int MAX_LEVEL = 24;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    private static final class Node {
+        final String key;
+        final int power;
+        final Clan clan;
+        final Node[] next;
+        final int[] span;
+
+        Node(String key, int power, Clan clan, int levels) {
+            this.key = key;
+            this.power = power;
+            this.clan = clan;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+    }
+
+    private final Node head = new Node(null, 0, null, MAX_LEVEL);
+    private final Map<String, Node> nodes = new HashMap<>();
+    private int level = 1;
+    private int size = 0;
+
+    // Re-indexes the clan if its power changed since it was last indexed
+    public synchronized void update(Clan clan) {
+        int power = clan.calculatePower();
+        Node existing = nodes.get(clan.getName());
+        if (existing != null) {
+            if (existing.power == power && existing.clan == clan) return;
+            unlink(existing.power, existing.key);
+        }
+        nodes.put(clan.getName(), insert(clan.getName(), power, clan));
+    }
+
+    public synchronized void remove(String key) {
+        Node existing = nodes.remove(key);
+        if (existing != null) unlink(existing.power, existing.key);
+    }
+
+    public synchronized void rebuild(Collection<Clan> clans) {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+            head.span[i] = 0;
+        }
+        nodes.clear();
+        level = 1;
+        size = 0;
+        for (Clan clan : clans) {
+            update(clan);
+        }
+    }
+
+    public synchronized List<Clan> top(int limit) {
+        List<Clan> top = new ArrayList<>(Math.min(limit, size));
+        for (Node node = head.next[0]; node != null && top.size() < limit; node = node.next[0]) {
+            top.add(node.clan);
+        }
+        return top;
+    }
+
+    // 1-based position on the board, or 0 if the clan is not indexed
+    public synchronized int rankOf(String key) {
+        Node target = nodes.get(key);
+        if (target == null) return 0;
+
+        int rank = 0;
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && compare(node.next[i], target.power, target.key) <= 0) {
+                rank += node.span[i];
+                node = node.next[i];
+            }
+            if (node == target) return rank;
+        }
+        return 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Negative if the node sorts before (power, key): higher power first, then by name
+    private static int compare(Node node, int power, String key) {
+        if (node.power != power) return node.power > power ? -1 : 1;
+        return node.key.compareTo(key);
+    }
+
+    private Node insert(String key, int power, Clan clan) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (node.next[i] != null && compare(node.next[i], power, key) < 0) {
+                rank[i] += node.span[i];
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+
+        int levels = randomLevel();
+        if (levels > level) {
+            for (int i = level; i < levels; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = levels;
+        }
+
+        Node inserted = new Node(key, power, clan, levels);
+        for (int i = 0; i < levels; i++) {
+            inserted.next[i] = update[i].next[i];
+            update[i].next[i] = inserted;
+            inserted.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = levels; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return inserted;
+    }
+
+    private void unlink(int power, String key) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && compare(node.next[i], power, key) < 0) {
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+
+        Node removed = node.next[0];
+        if (removed == null || compare(removed, power, key) != 0) return;
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == removed) {
+                update[i].span[i] += removed.span[i] - 1;
+                update[i].next[i] = removed.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    private static int randomLevel() {
+        int levels = 1;
+        while (levels < MAX_LEVEL && ThreadLocalRandom.current().nextDouble() < LEVEL_PROBABILITY) {
+            levels++;
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,101 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import com.clans.model.ClanPlayer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Online players per clan, kept current from join, respawn and disconnect
+ * events plus membership changes. Broadcasts and proximity scans iterate
+ * only the members that are actually online instead of looking up every
+ * member UUID in the player manager. Lists are copy-on-write: they are read
+ * every tick but only change when someone joins, leaves or switches clans.
+ * Each indexed player also carries its clan directly, see {@link ClanPlayer}.
+ */
+public class ClanOnlineIndex {
+    private final Map<UUID, ServerPlayerEntity> onlinePlayers = new ConcurrentHashMap<>();
+    private final Map<String, List<ServerPlayerEntity>> byClan = new ConcurrentHashMap<>();
+
+    public void playerJoined(ServerPlayerEntity player, Clan clan) {
+        onlinePlayers.put(player.getUuid(), player);
+        if (clan != null) add(clan, player);
+    }
+
+    // Respawning creates a new player entity, so swap the reference everywhere it is held
+    public void playerRespawned(ServerPlayerEntity player, Clan clan) {
+        if (onlinePlayers.replace(player.getUuid(), player) == null) return;
+        if (clan != null) add(clan, player);
+    }
+
+    public void playerLeft(UUID playerId, String clanKey) {
+        ServerPlayerEntity player = onlinePlayers.remove(playerId);
+        if (player != null) ClanPlayer.setClan(player, null);
+        if (clanKey != null) remove(clanKey, playerId);
+    }
+
+    public void memberAdded(Clan clan, UUID playerId) {
+        ServerPlayerEntity player = onlinePlayers.get(playerId);
+        if (player != null) add(clan, player);
+    }
+
+    public void memberRemoved(String clanKey, UUID playerId) {
+        remove(clanKey, playerId);
+        ServerPlayerEntity player = onlinePlayers.get(playerId);
+        if (player != null) ClanPlayer.setClan(player, null);
+    }
+
+    public void clanRemoved(String clanKey) {
+        List<ServerPlayerEntity> members = byClan.remove(clanKey);
+        if (members == null) return;
+        for (ServerPlayerEntity member : members) {
+            ClanPlayer.setClan(member, null);
+        }
+    }
+
+    // Relation ids were reassigned; re-read them into the cached player context
+    public void refreshClanIds() {
+        for (ServerPlayerEntity player : onlinePlayers.values()) {
+            ClanPlayer.setClan(player, ClanPlayer.getClan(player));
+        }
+    }
+
+    public List<ServerPlayerEntity> getOnlineMembers(String clanKey) {
+        List<ServerPlayerEntity> members = byClan.get(clanKey);
+        return members != null ? members : List.of();
+    }
+
+    public ServerPlayerEntity getPlayer(UUID playerId) {
+        return onlinePlayers.get(playerId);
+    }
+
+    // Re-derives the per-clan lists once the clan data has loaded
+    public void rebuild(Map<UUID, String> playerToClan, Map<String, Clan> clans) {
+        byClan.clear();
+        for (ServerPlayerEntity player : onlinePlayers.values()) {
+            String clanKey = playerToClan.get(player.getUuid());
+            Clan clan = clanKey != null ? clans.get(clanKey) : null;
+            ClanPlayer.setClan(player, clan);
+            if (clan != null) add(clan, player);
+        }
+    }
+
+    private void add(Clan clan, ServerPlayerEntity player) {
+        ClanPlayer.setClan(player, clan);
+        List<ServerPlayerEntity> members = byClan.computeIfAbsent(clan.getName(), k -> new CopyOnWriteArrayList<>());
+        members.removeIf(member -> member.getUuid().equals(player.getUuid()));
+        members.add(player);
+    }
+
+    private void remove(String clanKey, UUID playerId) {
+        List<ServerPlayerEntity> members = byClan.get(clanKey);
+        if (members == null) return;
+        members.removeIf(member -> member.getUuid().equals(playerId));
+        if (members.isEmpty()) byClan.remove(clanKey, members);
+    }
+}
@@ -0,0 +1,39 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+import com.mojang.serialization.Codec;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.PersistentStateType;
+
+/**
+ * Clan data registered as overworld {@link PersistentState} (storageMode=world).
+ * The server writes it to data/simpleclans.dat as compressed NBT during its
+ * own autosave and save-all, so clan data always matches the saved world.
+ */
+public class ClanPersistentState extends PersistentState {
+    public static final String ID = Simpleclans.MOD_ID;
+
+    // The world save writes on an IO thread, so it encodes a copy of the live tags
+    private static final Codec<ClanPersistentState> CODEC = NbtCompound.CODEC.xmap(ClanPersistentState::new, state -> state.data.copy());
+    public static final PersistentStateType<ClanPersistentState> TYPE = new PersistentStateType<>(ID, ClanPersistentState::new, CODEC, null);
+
+    private final NbtCompound data;
+
+    public ClanPersistentState() {
+        this(new NbtCompound());
+    }
+
+    public ClanPersistentState(NbtCompound data) {
+        this.data = data;
+    }
+
+    // Returns the named sub-compound, creating it if missing
+    public NbtCompound getSection(String name) {
+        return data.getCompound(name).orElseGet(() -> {
+            NbtCompound section = new NbtCompound();
+            data.put(name, section);
+            return section;
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index of clan relations: for every clan key, the clans whose
+ * allies, enemies or neutrals sets mention it. Lets disband clean up only
+ * the clans that actually reference the removed key. The forward sets on
+ * {@link Clan} stay the source of truth; {@link #verify} rebuilds from them.
+ */
+public class ClanRelationIndex {
+    private final Map<String, Set<String>> referencedBy = new ConcurrentHashMap<>();
+
+    // Re-reads whether clan still references target after its relation sets changed
+    public void refresh(Clan clan, String target) {
+        if (references(clan, target)) {
+            referencedBy.computeIfAbsent(target, key -> ConcurrentHashMap.newKeySet()).add(clan.getName());
+        } else {
+            unlink(clan.getName(), target);
+        }
+    }
+
+    // Drops a disbanded clan: its own outgoing links and its entry; returns the clans that still reference it
+    public Set<String> removeClan(Clan clan) {
+        String key = clan.getName();
+        for (Set<String> targets : relationSets(clan)) {
+            for (String target : targets) {
+                unlink(key, target);
+            }
+        }
+        Set<String> referrers = referencedBy.remove(key);
+        return referrers != null ? referrers : Set.of();
+    }
+
+    public void rebuild(Collection<Clan> clans) {
+        referencedBy.clear();
+        referencedBy.putAll(build(clans));
+    }
+
+    // Compares the index against the forward sets and rebuilds it if they disagree; returns the number of mismatched keys
+    public int verify(Collection<Clan> clans) {
+        Map<String, Set<String>> expected = build(clans);
+        Set<String> keys = new HashSet<>(expected.keySet());
+        keys.addAll(referencedBy.keySet());
+
+        int mismatches = 0;
+        for (String key : keys) {
+            Set<String> actual = referencedBy.getOrDefault(key, Set.of());
+            if (!actual.equals(expected.getOrDefault(key, Set.of()))) mismatches++;
+        }
+        if (mismatches > 0) {
+            referencedBy.clear();
+            referencedBy.putAll(expected);
+        }
+        return mismatches;
+    }
+
+    private void unlink(String referrer, String target) {
+        referencedBy.computeIfPresent(target, (key, referrers) -> {
+            referrers.remove(referrer);
+            return referrers.isEmpty() ? null : referrers;
+        });
+    }
+
+    private static Map<String, Set<String>> build(Collection<Clan> clans) {
+        Map<String, Set<String>> index = new HashMap<>();
+        for (Clan clan : clans) {
+            for (Set<String> targets : relationSets(clan)) {
+                for (String target : targets) {
+                    index.computeIfAbsent(target, key -> ConcurrentHashMap.newKeySet()).add(clan.getName());
+                }
+            }
+        }
+        return index;
+    }
+
+    private static boolean references(Clan clan, String target) {
+        return clan.getAllies().contains(target) || clan.getEnemies().contains(target) || clan.getNeutrals().contains(target);
+    }
+
+    private static List<Set<String>> relationSets(Clan clan) {
+        return List.of(clan.getAllies(), clan.getEnemies(), clan.getNeutrals());
+    }
+}
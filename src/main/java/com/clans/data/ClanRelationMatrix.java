@@ -0,0 +1,147 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Dense clan ids plus a two-bit-per-pair relation matrix, so the damage
+ * path can look up a relation without hashing names or allocating.
+ * The allies/enemies/neutrals sets on {@link Clan} stay the persisted form;
+ * this is rebuilt from them on load and kept in step by setRelation.
+ * Writes are synchronized; reads are lock-free.
+ */
+public class ClanRelationMatrix {
+    public static final int NONE = 0;
+    public static final int ALLY = 1;
+    public static final int ENEMY = 2;
+    public static final int NEUTRAL = 3;
+
+    private static final int PAIRS_PER_WORD = 32;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private int nextId = 0;
+    private volatile AtomicLongArray[] rows = new AtomicLongArray[0];
+
+    public int get(Clan from, Clan to) {
+        return get(from.getRelationId(), to.getRelationId());
+    }
+
+    public int get(int from, int to) {
+        AtomicLongArray[] current = rows;
+        if (from < 0 || to < 0 || from >= current.length || to >= current.length) return NONE;
+        long word = current[from].get(to / PAIRS_PER_WORD);
+        return (int) (word >>> ((to % PAIRS_PER_WORD) * 2)) & 3;
+    }
+
+    // Gives the clan a dense id, reusing ids freed by disbanded clans
+    public synchronized int assign(Clan clan) {
+        Integer existing = ids.get(clan.getName());
+        if (existing != null) {
+            clan.setRelationId(existing);
+            return existing;
+        }
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.poll();
+        ensureCapacity(id + 1);
+        ids.put(clan.getName(), id);
+        clan.setRelationId(id);
+        return id;
+    }
+
+    // Frees the clan's id and clears its row and column so the id can be reused
+    public synchronized void release(Clan clan) {
+        Integer id = ids.remove(clan.getName());
+        if (id == null) return;
+        AtomicLongArray[] current = rows;
+        for (int word = 0; word < current[id].length(); word++) {
+            current[id].set(word, 0L);
+        }
+        for (AtomicLongArray row : current) {
+            write(row, id, NONE);
+        }
+        freeIds.add(id);
+        clan.setRelationId(-1);
+    }
+
+    public synchronized void set(Clan from, Clan to, int relation) {
+        int fromId = assign(from);
+        int toId = assign(to);
+        write(rows[fromId], toId, relation);
+    }
+
+    // Reassigns ids and fills the matrix from the clans' relation sets
+    public synchronized void rebuild(Collection<Clan> clans) {
+        ids.clear();
+        freeIds.clear();
+        nextId = 0;
+        rows = new AtomicLongArray[0];
+        for (Clan clan : clans) {
+            assign(clan);
+        }
+        for (Clan clan : clans) {
+            fill(clan, clan.getNeutrals(), NEUTRAL);
+            fill(clan, clan.getEnemies(), ENEMY);
+            fill(clan, clan.getAllies(), ALLY);
+        }
+    }
+
+    public static int fromName(String relation) {
+        return switch (relation.toLowerCase()) {
+            case "ally" -> ALLY;
+            case "enemy" -> ENEMY;
+            case "neutral" -> NEUTRAL;
+            default -> NONE;
+        };
+    }
+
+    // Unset pairs read as neutral, matching getCurrentDiplomacyStatus
+    public static String nameOf(int relation) {
+        return switch (relation) {
+            case ALLY -> "ally";
+            case ENEMY -> "enemy";
+            default -> "neutral";
+        };
+    }
+
+    private void fill(Clan clan, Collection<String> targets, int relation) {
+        AtomicLongArray row = rows[clan.getRelationId()];
+        for (String target : targets) {
+            Integer targetId = ids.get(target);
+            if (targetId != null) write(row, targetId, relation);
+        }
+    }
+
+    private static void write(AtomicLongArray row, int to, int relation) {
+        int word = to / PAIRS_PER_WORD;
+        int shift = (to % PAIRS_PER_WORD) * 2;
+        long cleared = row.get(word) & ~(3L << shift);
+        row.set(word, cleared | ((long) relation << shift));
+    }
+
+    // Grows to a multiple of 32 clans; old rows are copied and the new array published in one write
+    private void ensureCapacity(int size) {
+        AtomicLongArray[] current = rows;
+        if (size <= current.length) return;
+
+        int capacity = Math.max(INITIAL_CAPACITY, current.length);
+        while (capacity < size) capacity *= 2;
+        int words = capacity / PAIRS_PER_WORD;
+
+        AtomicLongArray[] grown = new AtomicLongArray[capacity];
+        for (int i = 0; i < capacity; i++) {
+            grown[i] = new AtomicLongArray(words);
+            if (i < current.length) {
+                for (int word = 0; word < current[i].length(); word++) {
+                    grown[i].set(word, current[i].get(word));
+                }
+            }
+        }
+        rows = grown;
+    }
+}
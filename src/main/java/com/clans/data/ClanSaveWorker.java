@@ -0,0 +1,297 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for {@link ClanDataManager}.
+ * Mutations only mark the affected files dirty; a single background thread
+ * snapshots those files and writes them on a fixed interval, so many saves
+ * in a row collapse into one disk write per changed file.
+ * The dirty set is drained and snapshotted on the server thread, and only
+ * the disk write holds the write lock, so a save requested on the server
+ * thread never waits for a flush that is itself waiting for the server.
+ */
+public class ClanSaveWorker {
+
+    // What the worker needs from the data it saves; ClanDataManager in the mod
+    interface Source {
+        // Runs the task on the thread that owns the live data and waits for it; throws
+        // TimeoutException, without running the task, if that thread does not get to it in time
+        <T> T onDataThread(Supplier<T> task) throws TimeoutException, ExecutionException, InterruptedException;
+
+        ClanDataSnapshot captureSnapshot(ClanDirtySet dirty);
+
+        void writeSnapshot(ClanDataSnapshot snapshot, boolean fsync) throws IOException;
+
+        void saveNameIndex(boolean finalFlush);
+    }
+
+    // A drained dirty set and its snapshot; tickets make writes land in capture order.
+    // An empty capture has no snapshot and only waits for the writes still in flight,
+    // since one of those may hold what its caller marked dirty
+    private static final class Capture {
+        final ClanDirtySet dirty;
+        final ClanDataSnapshot snapshot;
+        final long ticket;
+        final long firstInFlight;
+
+        Capture(ClanDirtySet dirty, ClanDataSnapshot snapshot, long ticket, long firstInFlight) {
+            this.dirty = dirty;
+            this.snapshot = snapshot;
+            this.ticket = ticket;
+            this.firstInFlight = firstInFlight;
+        }
+    }
+
+    private final Source source;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicInteger dirtyFiles = new AtomicInteger(0);
+    // Per-clan tracking for sharded storage; allClansDirty forces a full rewrite
+    private final Set<String> dirtyClans = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean allClansDirty = new AtomicBoolean(false);
+    // Per-player tracking for row-based stores; allPlayersDirty forces a full rewrite
+    private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean allPlayersDirty = new AtomicBoolean(false);
+    // Timers are only ever marked as a whole; clan changes carry their own timer rows
+    private final AtomicBoolean allTimersDirty = new AtomicBoolean(false);
+    private final Object captureLock = new Object();
+    private final Object writeLock = new Object();
+    private long nextTicket;          // guarded by captureLock
+    private volatile long nextWrite;  // written under writeLock
+    private long lastFailedTicket = -1; // guarded by writeLock
+
+    // Save metrics (exposed through /clanadmin info)
+    private final AtomicLong saveRequests = new AtomicLong();
+    private final AtomicLong savesWritten = new AtomicLong();
+    private final AtomicLong totalSaveNanos = new AtomicLong();
+    private volatile long lastSaveNanos = 0;
+    private volatile long maxSaveNanos = 0;
+    private volatile long lastSaveTime = 0;
+
+    public ClanSaveWorker(Source source) {
+        this.source = source;
+    }
+
+    public void start(int intervalSeconds) {
+        if (scheduler != null && !scheduler.isShutdown()) return;
+
+        int interval = Math.max(1, intervalSeconds);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SimpleClans-SaveWorker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushScheduled, interval, interval, TimeUnit.SECONDS);
+
+        Simpleclans.LOGGER.info("Clan save worker started ({}s flush interval)", interval);
+    }
+
+    public void markDirty() {
+        markDirty(ClanDataFile.values());
+    }
+
+    public void markDirty(ClanDataFile... files) {
+        saveRequests.incrementAndGet();
+        int mask = ClanDataFile.maskOf(files);
+        if ((mask & ClanDataFile.CLANS.mask()) != 0) {
+            allClansDirty.set(true);
+        }
+        if ((mask & ClanDataFile.PLAYERS.mask()) != 0) {
+            allPlayersDirty.set(true);
+        }
+        if ((mask & ClanDataFile.TIMERS.mask()) != 0) {
+            allTimersDirty.set(true);
+        }
+        dirtyFiles.getAndUpdate(current -> current | mask);
+    }
+
+    // Marks individual clans dirty (including disbanded ones, so their shard is removed)
+    public void markClansDirty(Collection<String> clanKeys) {
+        saveRequests.incrementAndGet();
+        dirtyClans.addAll(clanKeys);
+        dirtyFiles.getAndUpdate(current -> current | ClanDataFile.CLANS.mask());
+    }
+
+    // Marks individual player mappings dirty (including removed ones, so their row is deleted)
+    public void markPlayersDirty(Collection<UUID> playerIds) {
+        saveRequests.incrementAndGet();
+        dirtyPlayers.addAll(playerIds);
+        dirtyFiles.getAndUpdate(current -> current | ClanDataFile.PLAYERS.mask());
+    }
+
+    public boolean isDirty() {
+        return dirtyFiles.get() != 0;
+    }
+
+    // Writes immediately on the calling thread if anything changed; false if the write failed
+    // or the server thread was too busy to take the snapshot (the data then stays dirty)
+    public boolean flush() {
+        return flushIfDirty(false);
+    }
+
+    public boolean shutdown() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    scheduler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                scheduler.shutdownNow();
+            }
+        }
+        // Final flush so nothing marked dirty is lost on shutdown
+        return flushIfDirty(true);
+    }
+
+    // Names first: clans written without their legacy names rely on names.dat already holding them
+    private void flushScheduled() {
+        source.saveNameIndex(false);
+        flushIfDirty(false);
+    }
+
+    private boolean flushIfDirty(boolean finalFlush) {
+        Capture capture;
+        try {
+            capture = source.onDataThread(this::capture);
+        } catch (TimeoutException e) {
+            Simpleclans.LOGGER.warn("Server thread busy, clan data stays dirty until the next flush");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            Simpleclans.LOGGER.error("Failed to snapshot clan data", e.getCause());
+            return false;
+        }
+        return write(capture, finalFlush);
+    }
+
+    // Runs on the server thread: drains the dirty set and copies what it names
+    private Capture capture() {
+        synchronized (captureLock) {
+            // Read before the dirty set: a write that fails restores its flags before it completes
+            long firstInFlight = nextWrite;
+            int files = dirtyFiles.getAndSet(0);
+            if (files == 0) return new Capture(null, null, nextTicket++, firstInFlight);
+            boolean allClans = allClansDirty.getAndSet(false);
+            Set<String> clanKeys = drain(dirtyClans);
+            boolean allPlayers = allPlayersDirty.getAndSet(false);
+            Set<UUID> playerIds = drain(dirtyPlayers);
+            boolean allTimers = allTimersDirty.getAndSet(false);
+            ClanDirtySet dirty = new ClanDirtySet(files, allClans, clanKeys, allPlayers, playerIds, allTimers);
+            try {
+                return new Capture(dirty, source.captureSnapshot(dirty), nextTicket++, firstInFlight);
+            } catch (RuntimeException e) {
+                restore(dirty);
+                throw e;
+            }
+        }
+    }
+
+    private boolean write(Capture capture, boolean finalFlush) {
+        synchronized (writeLock) {
+            // An older capture may still be on its way here; it has to land first
+            boolean interrupted = false;
+            while (capture.ticket != nextWrite) {
+                try {
+                    writeLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+
+            if (capture.snapshot == null) {
+                nextWrite++;
+                writeLock.notifyAll();
+                return lastFailedTicket < capture.firstInFlight;
+            }
+
+            long start = System.nanoTime();
+            try {
+                boolean fsync = AtomicFileWriter.FsyncPolicy.current().shouldSync(finalFlush);
+                source.writeSnapshot(capture.snapshot, fsync);
+            } catch (Exception e) {
+                // Keep everything dirty so the next cycle retries
+                restore(capture.dirty);
+                lastFailedTicket = capture.ticket;
+                Simpleclans.LOGGER.error("Failed to flush clan data", e);
+                return false;
+            } finally {
+                nextWrite++;
+                writeLock.notifyAll();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            savesWritten.incrementAndGet();
+            totalSaveNanos.addAndGet(elapsed);
+            lastSaveNanos = elapsed;
+            if (elapsed > maxSaveNanos) maxSaveNanos = elapsed;
+            lastSaveTime = System.currentTimeMillis();
+
+            Simpleclans.LOGGER.debug("Flushed clan data in {} ms", elapsed / 1_000_000.0);
+            return true;
+        }
+    }
+
+    private void restore(ClanDirtySet dirty) {
+        dirtyClans.addAll(dirty.getClanKeys());
+        dirtyPlayers.addAll(dirty.getPlayerIds());
+        if (dirty.isAllClans()) allClansDirty.set(true);
+        if (dirty.isAllPlayers()) allPlayersDirty.set(true);
+        if (dirty.isAllTimers()) allTimersDirty.set(true);
+        dirtyFiles.getAndUpdate(current -> current | dirty.getFiles());
+    }
+
+    private static <T> Set<T> drain(Set<T> dirty) {
+        Set<T> drained = new HashSet<>();
+        for (T key : new ArrayList<>(dirty)) {
+            if (dirty.remove(key)) {
+                drained.add(key);
+            }
+        }
+        return drained;
+    }
+
+    // Metrics
+    public long getSaveRequests() { return saveRequests.get(); }
+    public long getSavesWritten() { return savesWritten.get(); }
+    public long getLastSaveTime() { return lastSaveTime; }
+
+    public double getLastSaveMillis() {
+        return lastSaveNanos / 1_000_000.0;
+    }
+
+    public double getMaxSaveMillis() {
+        return maxSaveNanos / 1_000_000.0;
+    }
+
+    public double getAverageSaveMillis() {
+        long written = savesWritten.get();
+        return written == 0 ? 0 : (totalSaveNanos.get() / (double) written) / 1_000_000.0;
+    }
+
+    // Save requests that were absorbed by a later write
+    public long getCoalescedSaves() {
+        return Math.max(0, saveRequests.get() - savesWritten.get());
+    }
+}
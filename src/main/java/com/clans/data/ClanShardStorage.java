@@ -0,0 +1,96 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Stores each clan in its own file under clans/&lt;shard&gt;/&lt;key&gt;.json,
+ * where the shard is a two-digit hex hash of the clan key. Only changed
+ * clans are rewritten, so save cost follows the change, not the world size.
+ */
+public class ClanShardStorage {
+    private static final String SHARD_DIR = "clans";
+    private static final String EXTENSION = ".json";
+
+    private final Path root;
+
+    public ClanShardStorage(Path dataDir) {
+        this.root = dataDir.resolve(SHARD_DIR);
+    }
+
+    public boolean exists() {
+        return Files.isDirectory(root);
+    }
+
+    public Path shardPath(String clanKey) {
+        String shard = String.format("%02x", clanKey.hashCode() & 0xff);
+        return root.resolve(shard).resolve(clanKey + EXTENSION);
+    }
+
+    public void writeShard(String clanKey, JsonElement clanData, Gson gson, boolean fsync) throws IOException {
+        Path path = shardPath(clanKey);
+        Files.createDirectories(path.getParent());
+        AtomicFileWriter.write(path, fsync, writer -> gson.toJson(clanData, writer));
+    }
+
+    public void deleteShard(String clanKey) throws IOException {
+        Files.deleteIfExists(shardPath(clanKey));
+    }
+
+    // Removes shard files for clans that no longer exist
+    public void deleteAllExcept(Set<String> liveKeys) throws IOException {
+        for (Path file : listShardFiles()) {
+            if (!liveKeys.contains(keyOf(file))) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Parses every shard file in parallel
+    public Map<String, Clan> loadAll(Gson gson) throws IOException {
+        Map<String, Clan> loaded = new ConcurrentHashMap<>();
+        listShardFiles().parallelStream().forEach(file -> {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Clan clan = gson.fromJson(reader, Clan.class);
+                if (clan != null && clan.getName() != null) {
+                    loaded.put(clan.getName(), clan);
+                }
+            } catch (IOException e) {
+                // A skipped shard would be deleted by the next full save, so fail the whole load
+                throw new UncheckedIOException("Failed to load clan shard " + file, e);
+            }
+        });
+        return loaded;
+    }
+
+    private List<Path> listShardFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!exists()) return files;
+
+        try (Stream<Path> stream = Files.walk(root, 2)) {
+            stream.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                .filter(Files::isRegularFile)
+                .forEach(files::add);
+        }
+        return files;
+    }
+
+    private static String keyOf(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - EXTENSION.length());
+    }
+}
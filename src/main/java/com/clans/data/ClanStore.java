@@ -0,0 +1,93 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Storage backend for clan data. {@link ClanDataManager} keeps the live maps;
+ * a store loads them once at startup and afterwards persists the change sets
+ * the save worker hands it. Capturing runs on the server thread, writing on
+ * the save worker.
+ */
+public interface ClanStore {
+
+    String getName();
+
+    // True if this store holds data, so an empty one can be seeded from another backend
+    boolean hasData();
+
+    /**
+     * Fills the live maps. Independent parts may load in parallel on the executor;
+     * per-source load times are reported in milliseconds. Returns true if the data
+     * came from a layout other than the configured one and should be rewritten.
+     */
+    boolean load(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                 Executor executor, BiConsumer<String, Double> loadTimes) throws IOException;
+
+    // Copies what the dirty set covers out of the live maps; called on the server thread
+    ClanDataSnapshot capture(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                             ClanDirtySet dirty);
+
+    void write(ClanDataSnapshot snapshot, boolean fsync) throws IOException;
+
+    // True if the server's world save persists this store, so no save schedule of its own is needed
+    default boolean savesWithWorld() {
+        return false;
+    }
+
+    default void close() {}
+
+    static void timed(String source, BiConsumer<String, Double> loadTimes, Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        loadTimes.accept(source, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    // Row-level change set for stores that update individual records; a table is fully
+    // rewritten only when save() marked its whole file. Null values mark removed rows.
+    static ClanDataSnapshot captureRows(Gson gson, Map<String, Clan> clans, Map<UUID, String> playerToClan,
+                                        Map<String, Long> timers, ClanDirtySet dirty) {
+        Map<String, JsonElement> clanRows = null;
+        Map<String, Long> timerRows = null;
+        Map<UUID, String> playerRows = null;
+        boolean fullTimerRewrite = false;
+
+        if (dirty.isDirty(ClanDataFile.CLANS)) {
+            Collection<String> keys = dirty.isAllClans() ? clans.keySet() : dirty.getClanKeys();
+            clanRows = new HashMap<>();
+            timerRows = new HashMap<>();
+            for (String key : keys) {
+                Clan clan = clans.get(key);
+                clanRows.put(key, clan != null ? gson.toJsonTree(clan) : null);
+                timerRows.put(key, timers.get(key));
+            }
+            fullTimerRewrite = dirty.isAllClans();
+        }
+        if (dirty.isAllTimers()) {
+            timerRows = new HashMap<>(timers);
+            fullTimerRewrite = true;
+        }
+
+        if (dirty.isDirty(ClanDataFile.PLAYERS)) {
+            if (dirty.isAllPlayers()) {
+                playerRows = new HashMap<>(playerToClan);
+            } else {
+                playerRows = new HashMap<>();
+                for (UUID playerId : dirty.getPlayerIds()) {
+                    playerRows.put(playerId, playerToClan.get(playerId));
+                }
+            }
+        }
+        return ClanDataSnapshot.rows(clanRows, dirty.isAllClans(), playerRows, dirty.isAllPlayers(),
+            timerRows, fullTimerRewrite);
+    }
+}
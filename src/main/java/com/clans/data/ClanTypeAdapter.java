@@ -0,0 +1,171 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Hand-written Gson adapter for {@link Clan}. Produces the same JSON as the
+ * reflective adapter (same field names, nulls omitted) but reads and writes
+ * fields directly, so large clan files stream without reflection.
+ * Unknown fields are skipped for forward compatibility. memberNames is only
+ * read, from older saves; names are kept in {@link PlayerNameIndex}. The same
+ * goes for the per-killer warKills map, which is now saved as the flat
+ * warKilled list of enemy members.
+ */
+public class ClanTypeAdapter extends TypeAdapter<Clan> {
+
+    @Override
+    public void write(JsonWriter out, Clan clan) throws IOException {
+        if (clan == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (clan.getName() != null) out.name("name").value(clan.getName());
+        if (clan.getOriginalName() != null) out.name("originalName").value(clan.getOriginalName());
+        if (clan.getKing() != null) out.name("king").value(clan.getKing().toString());
+        writeUuids(out.name("advisors"), clan.getAdvisors());
+        writeUuids(out.name("members"), clan.getMembers());
+        writeStrings(out.name("allies"), clan.getAllies());
+        writeStrings(out.name("enemies"), clan.getEnemies());
+        writeStrings(out.name("neutrals"), clan.getNeutrals());
+        out.name("vault").value(clan.getNetheriteVault());
+        out.name("kills").value(clan.getTotalKills());
+        out.name("deaths").value(clan.getTotalDeaths());
+        out.name("created").value(clan.getCreatedTime());
+        out.name("lastNetheriteConsumption").value(clan.getLastNetheriteConsumption());
+        out.name("atWar").value(clan.isAtWar());
+        if (clan.getWarTarget() != null) out.name("warTarget").value(clan.getWarTarget());
+        writeUuids(out.name("warKilled"), clan.getWarProgress().getKilled());
+        out.endObject();
+    }
+
+    @Override
+    public Clan read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Clan clan = new Clan();
+        String name = null;
+        String originalName = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            switch (field) {
+                case "name" -> name = in.nextString();
+                case "originalName" -> originalName = in.nextString();
+                case "king" -> clan.setKing(UUID.fromString(in.nextString()));
+                case "advisors" -> clan.setAdvisors(readUuids(in));
+                case "members" -> clan.setMembers(readUuids(in));
+                case "allies" -> clan.setAllies(readStrings(in));
+                case "enemies" -> clan.setEnemies(readStrings(in));
+                case "neutrals" -> clan.setNeutrals(readStrings(in));
+                case "vault" -> clan.setNetheriteVault(in.nextInt());
+                case "kills" -> clan.setTotalKills(in.nextInt());
+                case "deaths" -> clan.setTotalDeaths(in.nextInt());
+                case "created" -> clan.setCreatedTime(in.nextLong());
+                case "lastNetheriteConsumption" -> clan.setLastNetheriteConsumption(in.nextLong());
+                case "atWar" -> clan.setAtWar(readBoolean(in));
+                case "warTarget" -> clan.setWarTarget(in.nextString());
+                case "warKilled" -> readWarKilled(in, clan);
+                case "warKills" -> readWarKills(in, clan); // legacy, victims per killer
+                case "memberNames" -> readMemberNames(in, clan); // legacy, names live in PlayerNameIndex now
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // setName also resets the display name, so apply the stored one afterwards
+        if (name != null) clan.setName(name);
+        if (originalName != null) clan.setOriginalName(originalName);
+        return clan;
+    }
+
+    // NBT has no boolean type, so clans stored as world data come back as 0/1
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        return in.peek() == JsonToken.NUMBER ? in.nextInt() != 0 : in.nextBoolean();
+    }
+
+    private static void writeUuids(JsonWriter out, Collection<UUID> uuids) throws IOException {
+        out.beginArray();
+        for (UUID uuid : uuids) {
+            out.value(uuid.toString());
+        }
+        out.endArray();
+    }
+
+    private static void writeStrings(JsonWriter out, Collection<String> values) throws IOException {
+        out.beginArray();
+        for (String value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static Set<UUID> readUuids(JsonReader in) throws IOException {
+        Set<UUID> uuids = new HashSet<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            uuids.add(UUID.fromString(in.nextString()));
+        }
+        in.endArray();
+        return uuids;
+    }
+
+    private static Set<String> readStrings(JsonReader in) throws IOException {
+        Set<String> values = new HashSet<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(in.nextString());
+        }
+        in.endArray();
+        return values;
+    }
+
+    private static void readWarKilled(JsonReader in, Clan clan) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            clan.getWarProgress().recordKill(UUID.fromString(in.nextString()));
+        }
+        in.endArray();
+    }
+
+    private static void readWarKills(JsonReader in, Clan clan) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            in.nextName();
+            readWarKilled(in, clan);
+        }
+        in.endObject();
+    }
+
+    private static void readMemberNames(JsonReader in, Clan clan) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            UUID playerId = UUID.fromString(in.nextName());
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            clan.storeMemberName(playerId, in.nextString());
+        }
+        in.endObject();
+    }
+}
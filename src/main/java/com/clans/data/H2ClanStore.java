@@ -0,0 +1,219 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+import com.clans.model.Clan;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Embedded H2 database in file mode (storageMode=h2). Every clan, player
+ * mapping and timer is its own row, so a save only touches the rows that
+ * changed instead of rewriting whole maps.
+ */
+public class H2ClanStore implements ClanStore {
+    private static final String DB_NAME = "clans";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS clans (clan_key VARCHAR(64) PRIMARY KEY, data CLOB NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS players (player_id UUID PRIMARY KEY, clan_key VARCHAR(64) NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS players_by_clan ON players (clan_key)",
+        "CREATE TABLE IF NOT EXISTS clan_timers (clan_key VARCHAR(64) PRIMARY KEY, created BIGINT NOT NULL)"
+    };
+
+    private final Path dataDir;
+    private final Gson gson;
+    private Connection connection;
+
+    public H2ClanStore(Path dataDir, Gson gson) {
+        this.dataDir = dataDir;
+        this.gson = gson;
+    }
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public boolean hasData() {
+        return Files.exists(dataDir.resolve(DB_NAME + ".mv.db"));
+    }
+
+    // Opened lazily so a JSON-mode server checking for old data never creates a database
+    private synchronized Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            try {
+                Files.createDirectories(dataDir);
+            } catch (IOException e) {
+                throw new SQLException("Cannot create " + dataDir, e);
+            }
+            String url = "jdbc:h2:file:" + dataDir.resolve(DB_NAME).toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE";
+            // Direct driver call: DriverManager does not see drivers nested in a mod jar
+            connection = new org.h2.Driver().connect(url, new Properties());
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+            connection.commit();
+        }
+        return connection;
+    }
+
+    @Override
+    public synchronized boolean load(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                                     Executor executor, BiConsumer<String, Double> loadTimes) throws IOException {
+        try {
+            Connection db = connection();
+            timedQuery("clans table", loadTimes, db, "SELECT clan_key, data FROM clans", rs -> {
+                Clan clan = gson.fromJson(rs.getString(2), Clan.class);
+                if (clan != null) clans.put(rs.getString(1), clan);
+            });
+            timedQuery("players table", loadTimes, db, "SELECT player_id, clan_key FROM players", rs ->
+                playerToClan.put(rs.getObject(1, UUID.class), rs.getString(2)));
+            timedQuery("clan_timers table", loadTimes, db, "SELECT clan_key, created FROM clan_timers", rs ->
+                timers.put(rs.getString(1), rs.getLong(2)));
+            db.commit();
+        } catch (SQLException e) {
+            throw new IOException("Failed to load clan database", e);
+        }
+        Simpleclans.LOGGER.info("Loaded {} clans and {} player mappings from the clan database", clans.size(), playerToClan.size());
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        void read(ResultSet rs) throws SQLException;
+    }
+
+    private static void timedQuery(String source, BiConsumer<String, Double> loadTimes, Connection db, String sql, RowReader reader) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = db.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                reader.read(rs);
+            }
+        }
+        loadTimes.accept(source, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    @Override
+    public ClanDataSnapshot capture(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                                    ClanDirtySet dirty) {
+        return ClanStore.captureRows(gson, clans, playerToClan, timers, dirty);
+    }
+
+    @Override
+    public synchronized void write(ClanDataSnapshot snapshot, boolean fsync) throws IOException {
+        try {
+            Connection db = connection();
+            try {
+                if (snapshot.getClanRows() != null) {
+                    Map<String, String> rows = new HashMap<>();
+                    snapshot.getClanRows().forEach((key, data) -> rows.put(key, data != null ? gson.toJson(data) : null));
+                    writeRows(db, rows, snapshot.isFullClanRewrite(),
+                        "MERGE INTO clans (clan_key, data) KEY (clan_key) VALUES (?, ?)",
+                        "DELETE FROM clans WHERE clan_key = ?", "SELECT clan_key FROM clans",
+                        PreparedStatement::setString);
+                }
+                if (snapshot.getTimerRows() != null) {
+                    writeRows(db, snapshot.getTimerRows(), snapshot.isFullTimerRewrite(),
+                        "MERGE INTO clan_timers (clan_key, created) KEY (clan_key) VALUES (?, ?)",
+                        "DELETE FROM clan_timers WHERE clan_key = ?", "SELECT clan_key FROM clan_timers",
+                        (statement, index, value) -> statement.setLong(index, value));
+                }
+                if (snapshot.getPlayerRows() != null) {
+                    writeRows(db, snapshot.getPlayerRows(), snapshot.isFullPlayerRewrite(),
+                        "MERGE INTO players (player_id, clan_key) KEY (player_id) VALUES (?, ?)",
+                        "DELETE FROM players WHERE player_id = ?", "SELECT player_id FROM players",
+                        PreparedStatement::setString);
+                }
+                db.commit();
+            } catch (SQLException e) {
+                db.rollback();
+                throw e;
+            }
+
+            if (fsync) {
+                try (Statement statement = db.createStatement()) {
+                    statement.execute("CHECKPOINT SYNC");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to write clan database", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueBinder<V> {
+        void bind(PreparedStatement statement, int index, V value) throws SQLException;
+    }
+
+    // Upserts non-null rows and deletes null ones; a full rewrite also drops rows that are no longer present
+    private static <K, V> void writeRows(Connection db, Map<K, V> rows, boolean fullRewrite,
+                                         String mergeSql, String deleteSql, String selectKeysSql,
+                                         ValueBinder<V> binder) throws SQLException {
+        List<Object> deletes = new ArrayList<>();
+        try (PreparedStatement merge = db.prepareStatement(mergeSql)) {
+            for (Map.Entry<K, V> row : rows.entrySet()) {
+                if (row.getValue() == null) {
+                    deletes.add(row.getKey());
+                    continue;
+                }
+                merge.setObject(1, row.getKey());
+                binder.bind(merge, 2, row.getValue());
+                merge.addBatch();
+            }
+            merge.executeBatch();
+        }
+
+        if (fullRewrite) {
+            Set<K> live = rows.keySet();
+            try (Statement statement = db.createStatement(); ResultSet rs = statement.executeQuery(selectKeysSql)) {
+                while (rs.next()) {
+                    Object key = rs.getObject(1);
+                    if (!live.contains(key)) deletes.add(key);
+                }
+            }
+        }
+
+        if (!deletes.isEmpty()) {
+            try (PreparedStatement delete = db.prepareStatement(deleteSql)) {
+                for (Object key : deletes) {
+                    delete.setObject(1, key);
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            Simpleclans.LOGGER.warn("Failed to close clan database", e);
+        }
+        connection = null;
+    }
+}
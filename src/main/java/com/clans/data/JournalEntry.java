@@ -0,0 +1,155 @@
+package com.clans.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.UUID;
+
+/**
+ * One line in the clan journal. Entries store the resulting state rather
+ * than a delta (e.g. the new vault amount), so replaying an entry that is
+ * already part of the snapshot is harmless.
+ */
+public class JournalEntry {
+    public enum Type {
+        CLAN_CREATED,
+        CLAN_DISBANDED,
+        MEMBER_JOINED,
+        MEMBER_LEFT,
+        DIPLOMACY_CHANGED,
+        VAULT_CHANGED,
+        KILL_RECORDED,
+        DEATH_RECORDED,
+        KING_CHANGED,
+        ADVISOR_CHANGED,
+        WAR_STARTED,
+        WAR_ENDED
+    }
+
+    @SerializedName("t")
+    private Type type;
+
+    @SerializedName("c")
+    private String clan;
+
+    @SerializedName("o")
+    private String target;
+
+    @SerializedName("p")
+    private UUID player;
+
+    @SerializedName("v")
+    private UUID victim;
+
+    @SerializedName("n")
+    private String name;
+
+    @SerializedName("r")
+    private String relation;
+
+    @SerializedName("i")
+    private int value;
+
+    @SerializedName("ts")
+    private long time;
+
+    @SerializedName("d")
+    private JsonElement data;
+
+    public JournalEntry() {}
+
+    private JournalEntry(Type type, String clan) {
+        this.type = type;
+        this.clan = clan;
+    }
+
+    public static JournalEntry clanCreated(String clan, JsonElement data, long time) {
+        JournalEntry entry = new JournalEntry(Type.CLAN_CREATED, clan);
+        entry.data = data;
+        entry.time = time;
+        return entry;
+    }
+
+    public static JournalEntry clanDisbanded(String clan) {
+        return new JournalEntry(Type.CLAN_DISBANDED, clan);
+    }
+
+    public static JournalEntry memberJoined(String clan, UUID player, String name) {
+        JournalEntry entry = new JournalEntry(Type.MEMBER_JOINED, clan);
+        entry.player = player;
+        entry.name = name;
+        return entry;
+    }
+
+    public static JournalEntry memberLeft(String clan, UUID player) {
+        JournalEntry entry = new JournalEntry(Type.MEMBER_LEFT, clan);
+        entry.player = player;
+        return entry;
+    }
+
+    public static JournalEntry diplomacyChanged(String clan, String target, String relation) {
+        JournalEntry entry = new JournalEntry(Type.DIPLOMACY_CHANGED, clan);
+        entry.target = target;
+        entry.relation = relation;
+        return entry;
+    }
+
+    public static JournalEntry vaultChanged(String clan, int vault, long lastConsumption) {
+        JournalEntry entry = new JournalEntry(Type.VAULT_CHANGED, clan);
+        entry.value = vault;
+        entry.time = lastConsumption;
+        return entry;
+    }
+
+    public static JournalEntry killRecorded(String clan, UUID killer, UUID victim, int totalKills) {
+        JournalEntry entry = new JournalEntry(Type.KILL_RECORDED, clan);
+        entry.player = killer;
+        entry.victim = victim;
+        entry.value = totalKills;
+        return entry;
+    }
+
+    public static JournalEntry deathRecorded(String clan, int totalDeaths) {
+        JournalEntry entry = new JournalEntry(Type.DEATH_RECORDED, clan);
+        entry.value = totalDeaths;
+        return entry;
+    }
+
+    public static JournalEntry kingChanged(String clan, UUID king) {
+        JournalEntry entry = new JournalEntry(Type.KING_CHANGED, clan);
+        entry.player = king;
+        return entry;
+    }
+
+    // value is 1 if the player is now an advisor, 0 if they no longer are
+    public static JournalEntry advisorChanged(String clan, UUID player, boolean advisor) {
+        JournalEntry entry = new JournalEntry(Type.ADVISOR_CHANGED, clan);
+        entry.player = player;
+        entry.value = advisor ? 1 : 0;
+        return entry;
+    }
+
+    // One entry for both sides, so a replay never leaves only one clan at war
+    public static JournalEntry warStarted(String clan, String target) {
+        JournalEntry entry = new JournalEntry(Type.WAR_STARTED, clan);
+        entry.target = target;
+        return entry;
+    }
+
+    public static JournalEntry warEnded(String clan, String target) {
+        JournalEntry entry = new JournalEntry(Type.WAR_ENDED, clan);
+        entry.target = target;
+        return entry;
+    }
+
+    public Type getType() { return type; }
+    public String getClan() { return clan; }
+    public String getTarget() { return target; }
+    public UUID getPlayer() { return player; }
+    public UUID getVictim() { return victim; }
+    public String getName() { return name; }
+    public String getRelation() { return relation; }
+    public int getValue() { return value; }
+    public long getTime() { return time; }
+    public JsonElement getData() { return data; }
+}
@@ -0,0 +1,329 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+import com.clans.model.Clan;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * The file-based store: clans.json, players.json and timers.json in the
+ * data directory, optionally with per-clan shards (storageMode=sharded) or
+ * a single binary clans.dat (snapshotFormat=binary) instead.
+ */
+public class JsonClanStore implements ClanStore {
+    private static final String CLANS_FILE = ClanDataFile.CLANS.getFileName();
+    private static final String PLAYERS_FILE = ClanDataFile.PLAYERS.getFileName();
+    private static final String TIMERS_FILE = ClanDataFile.TIMERS.getFileName();
+
+    private final Path dataDir;
+    private final Gson gson;
+    private final ClanTypeAdapter clanAdapter;
+    private final ClanShardStorage shardStorage;
+    // Binary mode: copies of the clans as of the last capture, refreshed only for dirty clans
+    private final Map<String, Clan> binaryCopies = new LinkedHashMap<>();
+
+    public JsonClanStore(Path dataDir, Gson gson, ClanTypeAdapter clanAdapter) {
+        this.dataDir = dataDir;
+        this.gson = gson;
+        this.clanAdapter = clanAdapter;
+        this.shardStorage = new ClanShardStorage(dataDir);
+    }
+
+    @Override
+    public String getName() {
+        return isBinarySnapshot() ? "binary" : isShardedStorage() ? "sharded json" : "json";
+    }
+
+    @Override
+    public boolean hasData() {
+        return Files.exists(dataDir.resolve(CLANS_FILE))
+            || Files.exists(dataDir.resolve(ClanBinaryCodec.FILE_NAME))
+            || shardStorage.exists();
+    }
+
+    private boolean isShardedStorage() {
+        return "sharded".equalsIgnoreCase(Simpleclans.getConfig().storageMode);
+    }
+
+    // Binary snapshots replace the three JSON files; sharded storage keeps its per-clan JSON
+    private boolean isBinarySnapshot() {
+        return "binary".equalsIgnoreCase(Simpleclans.getConfig().snapshotFormat) && !isShardedStorage();
+    }
+
+    // Clans, player mappings and timers are independent files, so they parse in parallel.
+    // A file that fails to parse fails the whole load instead of leaving its map partly filled.
+    @Override
+    public boolean load(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                        Executor executor, BiConsumer<String, Double> loadTimes) {
+        File binaryFile = dataDir.resolve(ClanBinaryCodec.FILE_NAME).toFile();
+        if (shouldLoadBinary(binaryFile)) {
+            ClanStore.timed(ClanBinaryCodec.FILE_NAME, loadTimes, () -> loadBinarySnapshot(binaryFile, clans, playerToClan, timers));
+            if (!isBinarySnapshot()) {
+                Simpleclans.LOGGER.info("Migrating {} back to JSON ({} is kept as a backup)", ClanBinaryCodec.FILE_NAME, ClanBinaryCodec.FILE_NAME);
+                return true;
+            }
+            return false;
+        }
+
+        AtomicBoolean migrate = new AtomicBoolean(false);
+        CompletableFuture.allOf(
+            CompletableFuture.runAsync(() -> ClanStore.timed(CLANS_FILE, loadTimes, () -> migrate.set(loadClans(clans))), executor),
+            CompletableFuture.runAsync(() -> ClanStore.timed(PLAYERS_FILE, loadTimes, () -> loadPlayerMappings(playerToClan)), executor),
+            CompletableFuture.runAsync(() -> ClanStore.timed(TIMERS_FILE, loadTimes, () -> loadTimers(timers)), executor)
+        ).join();
+
+        if (isBinarySnapshot() && !clans.isEmpty()) {
+            Simpleclans.LOGGER.info("Migrating JSON clan data to {} (JSON files are kept as a backup)", ClanBinaryCodec.FILE_NAME);
+            return true;
+        }
+        return migrate.get();
+    }
+
+    private boolean shouldLoadBinary(File binaryFile) {
+        if (!binaryFile.exists()) return false;
+        if (isBinarySnapshot()) return true;
+        if (isShardedStorage() && shardStorage.exists()) return false;
+
+        // Switching back to JSON: clans.json is only current if it was written after clans.dat
+        File jsonFile = dataDir.resolve(CLANS_FILE).toFile();
+        return !jsonFile.exists() || binaryFile.lastModified() > jsonFile.lastModified();
+    }
+
+    private void loadBinarySnapshot(File binaryFile, Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers) {
+        try {
+            ClanBinaryCodec.Contents contents = ClanBinaryCodec.read(binaryFile.toPath());
+            clans.putAll(contents.clans);
+            playerToClan.putAll(contents.playerToClan);
+            timers.putAll(contents.timers);
+            Simpleclans.LOGGER.info("Loaded {} clans, {} player mappings and {} timers from {}",
+                clans.size(), playerToClan.size(), timers.size(), ClanBinaryCodec.FILE_NAME);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load binary clan snapshot", e);
+        }
+    }
+
+    // Loads from the configured layout, falling back to the other one; returns true if that needs a migration
+    private boolean loadClans(Map<String, Clan> clans) {
+        File file = dataDir.resolve(CLANS_FILE).toFile();
+        boolean sharded = isShardedStorage();
+
+        if (sharded && shardStorage.exists()) {
+            loadClanShards(clans);
+        } else if (file.exists()) {
+            loadClanFile(file, clans);
+            if (sharded) {
+                Simpleclans.LOGGER.info("Migrating {} to per-clan shards ({} is kept as a backup)", CLANS_FILE, CLANS_FILE);
+                return true;
+            }
+        } else if (shardStorage.exists()) {
+            loadClanShards(clans);
+            Simpleclans.LOGGER.info("Migrating per-clan shards back to {}", CLANS_FILE);
+            return true;
+        }
+        return false;
+    }
+
+    // Streams clans straight into the live map, one entry at a time, instead of building an intermediate map
+    private void loadClanFile(File file, Map<String, Clan> clans) {
+        try (JsonReader reader = openJsonReader(file)) {
+            if (reader.peek() == JsonToken.NULL) return;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                Clan clan = clanAdapter.read(reader);
+                if (clan != null) {
+                    clans.put(key, clan);
+                }
+            }
+            reader.endObject();
+            Simpleclans.LOGGER.info("Loaded {} clans", clans.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load clans", e);
+        }
+    }
+
+    private static JsonReader openJsonReader(File file) throws IOException {
+        return new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 65536));
+    }
+
+    private void loadClanShards(Map<String, Clan> clans) {
+        try {
+            clans.putAll(shardStorage.loadAll(gson));
+            Simpleclans.LOGGER.info("Loaded {} clans from shards", clans.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load clan shards", e);
+        }
+    }
+
+    private void loadPlayerMappings(Map<UUID, String> playerToClan) {
+        try {
+            File file = dataDir.resolve(PLAYERS_FILE).toFile();
+            if (file.exists()) {
+                try (JsonReader reader = openJsonReader(file)) {
+                    if (reader.peek() == JsonToken.NULL) return;
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String playerKey = reader.nextName();
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            continue;
+                        }
+                        String clanKey = reader.nextString();
+                        try {
+                            playerToClan.put(UUID.fromString(playerKey), clanKey);
+                        } catch (IllegalArgumentException e) {
+                            Simpleclans.LOGGER.warn("Invalid UUID in player mappings: " + playerKey);
+                        }
+                    }
+                    reader.endObject();
+                    Simpleclans.LOGGER.info("Loaded {} player mappings", playerToClan.size());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load player mappings", e);
+        }
+    }
+
+    private void loadTimers(Map<String, Long> timers) {
+        try {
+            File file = dataDir.resolve(TIMERS_FILE).toFile();
+            if (file.exists()) {
+                try (JsonReader reader = openJsonReader(file)) {
+                    if (reader.peek() == JsonToken.NULL) return;
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String clanKey = reader.nextName();
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            continue;
+                        }
+                        timers.put(clanKey, reader.nextLong());
+                    }
+                    reader.endObject();
+                    Simpleclans.LOGGER.info("Loaded {} clan timers", timers.size());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load clan timers", e);
+        }
+    }
+
+    @Override
+    public ClanDataSnapshot capture(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                                    ClanDirtySet dirty) {
+        if (isBinarySnapshot()) {
+            // Only changed clans are copied here; encoding and compression run on the save worker
+            if (dirty.isAllClans() || binaryCopies.isEmpty()) {
+                binaryCopies.clear();
+                clans.forEach((key, clan) -> binaryCopies.put(key, ClanBinaryCodec.copyOf(clan)));
+            } else {
+                for (String key : dirty.getClanKeys()) {
+                    Clan clan = clans.get(key);
+                    if (clan != null) {
+                        binaryCopies.put(key, ClanBinaryCodec.copyOf(clan));
+                    } else {
+                        binaryCopies.remove(key);
+                    }
+                }
+            }
+            return new ClanDataSnapshot(new ClanBinaryCodec.Contents(new LinkedHashMap<>(binaryCopies),
+                new HashMap<>(playerToClan), new HashMap<>(timers)));
+        }
+        // Copies are only kept current in binary mode
+        binaryCopies.clear();
+
+        JsonElement clanData = null;
+        Map<String, JsonElement> clanShards = null;
+        Map<String, String> stringMappings = null;
+        Map<String, Long> timerCopy = null;
+
+        if (dirty.isDirty(ClanDataFile.CLANS)) {
+            if (!isShardedStorage()) {
+                clanData = gson.toJsonTree(clans);
+            } else {
+                clanShards = new HashMap<>();
+                Collection<String> keys = dirty.isAllClans() ? clans.keySet() : dirty.getClanKeys();
+                for (String key : keys) {
+                    Clan clan = clans.get(key);
+                    clanShards.put(key, clan != null ? gson.toJsonTree(clan) : null);
+                }
+            }
+        }
+        if (dirty.isDirty(ClanDataFile.PLAYERS)) {
+            stringMappings = new HashMap<>();
+            for (Map.Entry<UUID, String> entry : playerToClan.entrySet()) {
+                stringMappings.put(entry.getKey().toString(), entry.getValue());
+            }
+        }
+        if (dirty.isDirty(ClanDataFile.TIMERS)) {
+            timerCopy = new HashMap<>(timers);
+        }
+        return new ClanDataSnapshot(clanData, clanShards, dirty.isAllClans(), stringMappings, timerCopy);
+    }
+
+    // Writes only the parts present in the snapshot
+    @Override
+    public void write(ClanDataSnapshot snapshot, boolean fsync) throws IOException {
+        Files.createDirectories(dataDir);
+        if (snapshot.getBinary() != null) {
+            ClanBinaryCodec.Contents contents = snapshot.getBinary();
+            byte[] payload = ClanBinaryCodec.encode(contents.clans, contents.playerToClan, contents.timers);
+            ClanBinaryCodec.write(dataDir.resolve(ClanBinaryCodec.FILE_NAME), payload,
+                Simpleclans.getConfig().snapshotCompression, fsync);
+            return;
+        }
+        if (snapshot.getClans() != null) {
+            writeJson(CLANS_FILE, snapshot.getClans(), fsync);
+        }
+        if (snapshot.getClanRows() != null) {
+            writeClanShards(snapshot, fsync);
+        }
+        if (snapshot.getPlayerMappings() != null) {
+            writeJson(PLAYERS_FILE, snapshot.getPlayerMappings(), fsync);
+        }
+        if (snapshot.getTimers() != null) {
+            writeJson(TIMERS_FILE, snapshot.getTimers(), fsync);
+        }
+    }
+
+    private void writeJson(String fileName, Object data, boolean fsync) throws IOException {
+        AtomicFileWriter.write(dataDir.resolve(fileName), fsync, writer -> gson.toJson(data, writer));
+    }
+
+    private void writeClanShards(ClanDataSnapshot snapshot, boolean fsync) throws IOException {
+        for (Map.Entry<String, JsonElement> entry : snapshot.getClanRows().entrySet()) {
+            if (entry.getValue() != null) {
+                shardStorage.writeShard(entry.getKey(), entry.getValue(), gson, fsync);
+            } else {
+                shardStorage.deleteShard(entry.getKey());
+            }
+        }
+        if (snapshot.isFullClanRewrite()) {
+            shardStorage.deleteAllExcept(snapshot.getClanRows().keySet());
+        }
+    }
+}
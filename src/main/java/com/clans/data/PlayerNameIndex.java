@@ -0,0 +1,126 @@
+package com.clans.data;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.UserCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-wide UUID to name index for showing offline players. Filled when
+ * players join, with the server's user cache as a fallback, and saved as a
+ * small binary names.dat next to the clan data instead of per-clan copies.
+ */
+public class PlayerNameIndex {
+    public static final String FILE_NAME = "names.dat";
+    private static final int MAGIC = 0x53434E4D; // "SCNM"
+    private static final byte VERSION = 1;
+
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idsByName = new ConcurrentHashMap<>(); // lowercase name -> id
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private volatile MinecraftServer server;
+
+    public void setServer(MinecraftServer server) {
+        this.server = server;
+    }
+
+    // Records the player's current name; true if it was new or changed
+    public boolean put(UUID playerId, String name) {
+        String previous = names.put(playerId, name);
+        if (name.equals(previous)) return false;
+        if (previous != null) {
+            idsByName.remove(previous.toLowerCase(Locale.ROOT), playerId);
+        }
+        idsByName.put(name.toLowerCase(Locale.ROOT), playerId);
+        dirty.set(true);
+        return true;
+    }
+
+    // Keeps an existing entry; used for saved and legacy names that may be older than a join
+    public void putIfAbsent(UUID playerId, String name) {
+        if (name == null || "Unknown".equals(name) || names.containsKey(playerId)) return;
+        put(playerId, name);
+    }
+
+    // Indexed name, else the user cache (local only, never a web lookup); null if neither knows the player
+    public String getName(UUID playerId) {
+        String name = names.get(playerId);
+        if (name != null) return name;
+
+        MinecraftServer current = server;
+        UserCache userCache = current != null ? current.getUserCache() : null;
+        if (userCache == null) return null;
+        Optional<GameProfile> profile = userCache.getByUuid(playerId);
+        if (profile.isEmpty()) return null;
+        put(playerId, profile.get().getName());
+        return profile.get().getName();
+    }
+
+    public UUID findByName(String name) {
+        return idsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public void load(Path dataDir) throws IOException {
+        Path file = dataDir.resolve(FILE_NAME);
+        if (!Files.exists(file)) return;
+
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 65536)) {
+            DataInputStream in = new DataInputStream(stream);
+            if (in.readInt() != MAGIC) throw new IOException(FILE_NAME + " is not a name index");
+            byte version = in.readByte();
+            if (version != VERSION) throw new IOException("Unsupported " + FILE_NAME + " version " + version);
+
+            int count = in.readInt();
+            boolean wasDirty = dirty.get();
+            for (int i = 0; i < count; i++) {
+                UUID playerId = new UUID(in.readLong(), in.readLong());
+                putIfAbsent(playerId, in.readUTF());
+            }
+            dirty.set(wasDirty);
+        }
+    }
+
+    // Writes the index only if a name was added or changed since the last save
+    public void saveIfDirty(Path dataDir, boolean fsync) throws IOException {
+        if (!dirty.getAndSet(false)) return;
+
+        Map<UUID, String> copy = new HashMap<>(names);
+        try {
+            Files.createDirectories(dataDir);
+            AtomicFileWriter.writeStream(dataDir.resolve(FILE_NAME), fsync, stream -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 65536));
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<UUID, String> entry : copy.entrySet()) {
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.writeUTF(entry.getValue());
+                }
+                out.flush();
+            });
+        } catch (IOException e) {
+            dirty.set(true);
+            throw e;
+        }
+    }
+}
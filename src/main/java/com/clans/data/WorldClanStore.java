@@ -0,0 +1,165 @@
+package com.clans.data;
+
+import com.clans.Simpleclans;
+import com.clans.model.Clan;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtLong;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.NbtSizeTracker;
+import net.minecraft.nbt.NbtString;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Stores clan data inside the world (storageMode=world) as a
+ * {@link ClanPersistentState}. Saves only update the in-memory NBT tags;
+ * the server's own world save writes them to disk, so there is no separate
+ * save schedule and clan data stays in step with the world snapshot.
+ */
+public class WorldClanStore implements ClanStore {
+    private static final String CLANS = "clans";
+    private static final String PLAYERS = "players";
+    private static final String TIMERS = "timers";
+
+    private final MinecraftServer server;
+    private final Gson gson;
+    private final ClanPersistentState state = new ClanPersistentState();
+    private boolean attached = false;
+
+    public WorldClanStore(MinecraftServer server, Gson gson) {
+        this.server = server;
+        this.gson = gson;
+    }
+
+    @Override
+    public String getName() {
+        return "world";
+    }
+
+    @Override
+    public boolean savesWithWorld() {
+        return true;
+    }
+
+    private Path dataFile() {
+        return server.getSavePath(WorldSavePath.ROOT).resolve("data").resolve(ClanPersistentState.ID + ".dat");
+    }
+
+    @Override
+    public boolean hasData() {
+        return Files.exists(dataFile());
+    }
+
+    // Reads the state file directly so loading stays off the server thread; the state is attached on first write
+    @Override
+    public synchronized boolean load(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                                     Executor executor, BiConsumer<String, Double> loadTimes) throws IOException {
+        Path file = dataFile();
+        if (!Files.exists(file)) return false;
+
+        long start = System.nanoTime();
+        NbtCompound root = NbtIo.readCompressed(file, NbtSizeTracker.ofUnlimitedBytes());
+        NbtCompound data = root.getCompoundOrEmpty("data");
+        loadTimes.accept(file.getFileName().toString(), (System.nanoTime() - start) / 1_000_000.0);
+
+        NbtCompound clanTags = data.getCompoundOrEmpty(CLANS);
+        NbtCompound playerTags = data.getCompoundOrEmpty(PLAYERS);
+        NbtCompound timerTags = data.getCompoundOrEmpty(TIMERS);
+        state.getSection(CLANS).copyFrom(clanTags);
+        state.getSection(PLAYERS).copyFrom(playerTags);
+        state.getSection(TIMERS).copyFrom(timerTags);
+
+        CompletableFuture.allOf(
+            CompletableFuture.runAsync(() -> ClanStore.timed(CLANS + " tags", loadTimes, () -> {
+                for (String key : clanTags.getKeys()) {
+                    JsonElement json = NbtOps.INSTANCE.convertTo(JsonOps.INSTANCE, clanTags.get(key));
+                    Clan clan = gson.fromJson(json, Clan.class);
+                    if (clan != null) clans.put(key, clan);
+                }
+            }), executor),
+            CompletableFuture.runAsync(() -> ClanStore.timed(PLAYERS + " tags", loadTimes, () -> {
+                for (String key : playerTags.getKeys()) {
+                    playerTags.getString(key).ifPresent(clanKey -> playerToClan.put(UUID.fromString(key), clanKey));
+                }
+            }), executor),
+            CompletableFuture.runAsync(() -> ClanStore.timed(TIMERS + " tags", loadTimes, () -> {
+                for (String key : timerTags.getKeys()) {
+                    timerTags.getLong(key).ifPresent(created -> timers.put(key, created));
+                }
+            }), executor)
+        ).join();
+
+        Simpleclans.LOGGER.info("Loaded {} clans and {} player mappings from world data", clans.size(), playerToClan.size());
+        return false;
+    }
+
+    @Override
+    public ClanDataSnapshot capture(Map<String, Clan> clans, Map<UUID, String> playerToClan, Map<String, Long> timers,
+                                    ClanDirtySet dirty) {
+        return ClanStore.captureRows(gson, clans, playerToClan, timers, dirty);
+    }
+
+    // Applies the changed rows to the state's tags and marks it dirty; the world save does the disk write and fsync
+    @Override
+    public synchronized void write(ClanDataSnapshot snapshot, boolean fsync) {
+        if (!attached) {
+            server.getOverworld().getPersistentStateManager().set(ClanPersistentState.TYPE, state);
+            attached = true;
+        }
+
+        if (snapshot.getClanRows() != null) {
+            applyRows(state.getSection(CLANS), snapshot.getClanRows(), snapshot.isFullClanRewrite(),
+                Function.identity(), json -> JsonOps.INSTANCE.convertTo(NbtOps.INSTANCE, json));
+        }
+        if (snapshot.getTimerRows() != null) {
+            applyRows(state.getSection(TIMERS), snapshot.getTimerRows(), snapshot.isFullTimerRewrite(),
+                Function.identity(), NbtLong::of);
+        }
+        if (snapshot.getPlayerRows() != null) {
+            applyRows(state.getSection(PLAYERS), snapshot.getPlayerRows(), snapshot.isFullPlayerRewrite(),
+                UUID::toString, NbtString::of);
+        }
+        state.markDirty();
+    }
+
+    // Puts non-null rows and removes null ones; a full rewrite also drops tags that are no longer present
+    private static <K, V> void applyRows(NbtCompound tags, Map<K, V> rows, boolean fullRewrite,
+                                         Function<K, String> keyName, Function<V, NbtElement> toTag) {
+        if (fullRewrite) {
+            Set<String> live = new HashSet<>();
+            for (K key : rows.keySet()) {
+                live.add(keyName.apply(key));
+            }
+            for (String key : new ArrayList<>(tags.getKeys())) {
+                if (!live.contains(key)) tags.remove(key);
+            }
+        }
+
+        for (Map.Entry<K, V> row : rows.entrySet()) {
+            String key = keyName.apply(row.getKey());
+            if (row.getValue() == null) {
+                tags.remove(key);
+            } else {
+                tags.put(key, toTag.apply(row.getValue()));
+            }
+        }
+    }
+}
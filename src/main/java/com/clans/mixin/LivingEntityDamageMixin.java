@@ -0,0 +1,22 @@
+package com.clans.mixin;
+
+import com.clans.Simpleclans;
+import com.clans.systems.ClanCombatSystem;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.damage.DamageSource;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.ModifyVariable;
+
+@Mixin(LivingEntity.class)
+public abstract class LivingEntityDamageMixin {
+	// Scales the hit by the attacker's clan bonuses once, in place, before armor is applied
+	@ModifyVariable(method = "applyArmorToDamage", at = @At("HEAD"), argsOnly = true)
+	private float simpleclans$applyClanDamageBonus(float amount, DamageSource source) {
+		ClanCombatSystem combatSystem = Simpleclans.getCombatSystem();
+		if (combatSystem == null || !Simpleclans.getDataManager().isReady()) {
+			return amount;
+		}
+		return combatSystem.modifyDamage((LivingEntity) (Object) this, source, amount);
+	}
+}
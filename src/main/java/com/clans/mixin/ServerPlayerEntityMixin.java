@@ -0,0 +1,32 @@
+package com.clans.mixin;
+
+import com.clans.model.Clan;
+import com.clans.model.ClanPlayer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+@Mixin(ServerPlayerEntity.class)
+public abstract class ServerPlayerEntityMixin implements ClanPlayer {
+	@Unique
+	private Clan simpleclans$clan;
+	@Unique
+	private int simpleclans$clanId = -1;
+
+	@Override
+	public Clan simpleclans$getClan() {
+		return simpleclans$clan;
+	}
+
+	@Override
+	public int simpleclans$getClanId() {
+		return simpleclans$clanId;
+	}
+
+	// The id is captured with the clan; the online index refreshes it when relation ids are reassigned
+	@Override
+	public void simpleclans$setClan(Clan clan) {
+		this.simpleclans$clan = clan;
+		this.simpleclans$clanId = clan != null ? clan.getRelationId() : -1;
+	}
+}
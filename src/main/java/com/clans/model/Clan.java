@@ -49,12 +49,42 @@ public class Clan {
     @SerializedName("warTarget")
     private String warTarget = null;
     
-    @SerializedName("warKills")
-    private Map<UUID, Set<UUID>> warKills = new HashMap<>();
+    // Saved as the "warKilled" list by ClanTypeAdapter and ClanBinaryCodec
+    private transient WarProgress warProgress = new WarProgress();
     
+    // Legacy: names saved by older versions, moved into the global name index on load
     @SerializedName("memberNames")
     private Map<UUID, String> memberNames = new HashMap<>();
     
+    // Dense id into the relation matrix; assigned at runtime, never saved
+    private transient int relationId = -1;
+    
+    // Cached power score; recomputed only when vault, kills, deaths, war state or the weights change
+    private transient int power;
+    private transient PowerWeights powerWeights; // the weights power was computed with; null until first computed
+    private transient PowerListener powerListener;
+    
+    // Power weights from the config, replaced as a whole so a reader never mixes old and new values;
+    // a new instance invalidates every cached score
+    private static volatile PowerWeights weights = new PowerWeights(5.0, 0.5, 0.5);
+    
+    private static final class PowerWeights {
+        final double netherite;
+        final double kill;
+        final double death;
+        
+        PowerWeights(double netherite, double kill, double death) {
+            this.netherite = netherite;
+            this.kill = kill;
+            this.death = death;
+        }
+    }
+    
+    @FunctionalInterface
+    public interface PowerListener {
+        void onPowerChanged(Clan clan, int oldPower, int newPower);
+    }
+    
     public Clan() {}
     
     public Clan(String name, UUID king) {
@@ -67,11 +97,15 @@ public class Clan {
     // Enhanced getters/setters
     public String getName() { return name; }
     public String getOriginalName() { return originalName; }
+    public void setOriginalName(String originalName) { this.originalName = originalName; }
     public void setName(String name) { 
         this.name = name.toLowerCase();
         this.originalName = name;
     }
     
+    public int getRelationId() { return relationId; }
+    public void setRelationId(int relationId) { this.relationId = relationId; }
+    
     public UUID getKing() { return king; }
     public void setKing(UUID king) { this.king = king; }
     
@@ -113,20 +147,14 @@ public class Clan {
     }
     
     // Enhanced member management
-    public boolean addMember(UUID playerId, String playerName) {
+    public boolean addMember(UUID playerId) {
         if (members.size() >= 4) return false;
-        
-        boolean added = members.add(playerId);
-        if (added) {
-            memberNames.put(playerId, playerName);
-        }
-        return added;
+        return members.add(playerId);
     }
     
     public boolean removeMember(UUID playerId) {
         boolean removed = members.remove(playerId);
         advisors.remove(playerId);
-        memberNames.remove(playerId);
         return removed;
     }
     
@@ -152,13 +180,13 @@ public class Clan {
     public void setNeutrals(Set<String> neutrals) { this.neutrals = neutrals; }
     
     public int getNetheriteVault() { return netheriteVault; }
-    public void setNetheriteVault(int netheriteVault) { this.netheriteVault = netheriteVault; }
+    public void setNetheriteVault(int netheriteVault) { this.netheriteVault = netheriteVault; refreshPower(); }
     
     public int getTotalKills() { return totalKills; }
-    public void setTotalKills(int totalKills) { this.totalKills = totalKills; }
+    public void setTotalKills(int totalKills) { this.totalKills = totalKills; refreshPower(); }
     
     public int getTotalDeaths() { return totalDeaths; }
-    public void setTotalDeaths(int totalDeaths) { this.totalDeaths = totalDeaths; }
+    public void setTotalDeaths(int totalDeaths) { this.totalDeaths = totalDeaths; refreshPower(); }
     
     public long getCreatedTime() { return createdTime; }
     public void setCreatedTime(long createdTime) { this.createdTime = createdTime; }
@@ -167,60 +195,81 @@ public class Clan {
     public void setLastNetheriteConsumption(long lastNetheriteConsumption) { this.lastNetheriteConsumption = lastNetheriteConsumption; }
     
     public boolean isAtWar() { return atWar; }
-    public void setAtWar(boolean atWar) { this.atWar = atWar; }
+    public void setAtWar(boolean atWar) { this.atWar = atWar; refreshPower(); }
     
     public String getWarTarget() { return warTarget; }
-    public void setWarTarget(String warTarget) { this.warTarget = warTarget; }
+    public void setWarTarget(String warTarget) { this.warTarget = warTarget; refreshPower(); }
     
-    public Map<UUID, Set<UUID>> getWarKills() { return warKills; }
-    public void setWarKills(Map<UUID, Set<UUID>> warKills) { this.warKills = warKills; }
+    public WarProgress getWarProgress() { return warProgress; }
+    
+    public static void setPowerWeights(double netherite, double kill, double death) {
+        weights = new PowerWeights(netherite, kill, death);
+    }
+    
+    public void setPowerListener(PowerListener powerListener) { this.powerListener = powerListener; }
     
     public int calculatePower() {
-        double killMultiplier = (atWar && warTarget != null) ? 1.0 : 0.5; // 2x during war
-        double deathPenalty = (atWar && warTarget != null) ? 1.0 : 0.5;   // 2x penalty during war
+        if (powerWeights != weights) refreshPower();
+        return power;
+    }
+    
+    // Recomputes the cached score and tells the listener if it moved
+    public void refreshPower() {
+        PowerWeights current = weights;
+        double warFactor = (atWar && warTarget != null) ? 2.0 : 1.0; // kills and deaths count double during war
+        int updated = (int)(netheriteVault * current.netherite) +
+                      (int)(totalKills * current.kill * warFactor) -
+                      (int)(totalDeaths * current.death * warFactor);
         
-        return (netheriteVault * 5) + 
-               (int)(totalKills * killMultiplier) - 
-               (int)(totalDeaths * deathPenalty);
+        int previous = power;
+        boolean known = powerWeights != null;
+        power = updated;
+        powerWeights = current;
+        if (known && previous != updated && powerListener != null) {
+            powerListener.onPowerChanged(this, previous, updated);
+        }
     }
     
-    public void addKill(UUID killer, UUID victim) {
+    public void addKill() {
         totalKills++;
+        refreshPower();
+    }
+    
+    // Only kills of the war target's members count towards victory
+    public void addWarKill(UUID victim) {
         if (atWar && warTarget != null) {
-            warKills.computeIfAbsent(killer, k -> new HashSet<>()).add(victim);
+            warProgress.recordKill(victim);
         }
     }
     
     public void addDeath() {
         totalDeaths++;
         // War deaths are handled by power calculation multiplier, not double-counting
+        refreshPower();
     }
     
     public boolean hasKilledAllEnemies(Set<UUID> enemyMembers) {
-        Set<UUID> allKilled = new HashSet<>();
-        for (Set<UUID> killed : warKills.values()) {
-            allKilled.addAll(killed);
-        }
-        return allKilled.containsAll(enemyMembers);
+        return warProgress.getKilledCount() >= enemyMembers.size();
     }
     
     public void resetWar() {
         atWar = false;
         warTarget = null;
-        warKills.clear();
+        warProgress.clear();
+        refreshPower();
     }
     
-    // Add methods to store/retrieve names
+    // Only used when reading older saves and journals; see PlayerNameIndex
     public void storeMemberName(UUID playerId, String name) {
         memberNames.put(playerId, name);
     }
     
-    public String getMemberName(UUID playerId) {
-        return memberNames.getOrDefault(playerId, "Unknown");
-    }
-    
-    public Map<UUID, String> getMemberNames() {
-        return new HashMap<>(memberNames);
+    // Hands the legacy names over once and forgets them, so they are not saved again
+    public Map<UUID, String> drainLegacyMemberNames() {
+        if (memberNames.isEmpty()) return Map.of();
+        Map<UUID, String> drained = memberNames;
+        memberNames = new HashMap<>();
+        return drained;
     }
     
     public int getKills() {
@@ -235,6 +284,7 @@ public class Clan {
         this.atWar = true;
         this.warTarget = enemyClanName;
         // Clear war kills for fresh start
-        this.warKills.clear();
+        this.warProgress.clear();
+        refreshPower();
     }
 }
@@ -0,0 +1,30 @@
+package com.clans.model;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Clan context attached to every {@link ServerPlayerEntity} by a mixin. The
+ * online index keeps it current on join, respawn and membership changes, so
+ * combat checks read a field instead of resolving playerToClan and clans.
+ */
+public interface ClanPlayer {
+
+    Clan simpleclans$getClan();
+
+    // Dense relation-matrix id of the clan, -1 without one
+    int simpleclans$getClanId();
+
+    void simpleclans$setClan(Clan clan);
+
+    static Clan getClan(ServerPlayerEntity player) {
+        return ((ClanPlayer) player).simpleclans$getClan();
+    }
+
+    static int getClanId(ServerPlayerEntity player) {
+        return ((ClanPlayer) player).simpleclans$getClanId();
+    }
+
+    static void setClan(ServerPlayerEntity player, Clan clan) {
+        ((ClanPlayer) player).simpleclans$setClan(clan);
+    }
+}
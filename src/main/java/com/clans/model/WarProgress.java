@@ -0,0 +1,80 @@
+package com.clans.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Enemy members a clan has killed in its current war. Each enemy gets a slot
+ * the first time they die; a bit per slot marks who is currently counted and
+ * a running total makes the victory check one comparison against the enemy
+ * roster size. Members who leave the enemy clan are uncounted again.
+ */
+public class WarProgress {
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final List<UUID> slotMembers = new ArrayList<>();
+    private final BitSet killed = new BitSet();
+    private int killedCount;
+
+    // Counts the victim once per war; returns false if they were already counted
+    public boolean recordKill(UUID victim) {
+        Integer slot = slots.get(victim);
+        if (slot == null) {
+            slot = slotMembers.size();
+            slots.put(victim, slot);
+            slotMembers.add(victim);
+        }
+        if (killed.get(slot)) return false;
+        killed.set(slot);
+        killedCount++;
+        return true;
+    }
+
+    // The enemy left their clan, so they no longer count towards the roster
+    public void memberLeft(UUID member) {
+        Integer slot = slots.get(member);
+        if (slot != null && killed.get(slot)) {
+            killed.clear(slot);
+            killedCount--;
+        }
+    }
+
+    // Drops kills of players who are not on the enemy roster, e.g. from older saves
+    public void retainMembers(Collection<UUID> enemyMembers) {
+        for (int slot = killed.nextSetBit(0); slot >= 0; slot = killed.nextSetBit(slot + 1)) {
+            if (!enemyMembers.contains(slotMembers.get(slot))) {
+                killed.clear(slot);
+                killedCount--;
+            }
+        }
+    }
+
+    public boolean hasKilled(UUID member) {
+        Integer slot = slots.get(member);
+        return slot != null && killed.get(slot);
+    }
+
+    public int getKilledCount() {
+        return killedCount;
+    }
+
+    // Counted victims in slot order, for saving
+    public List<UUID> getKilled() {
+        List<UUID> members = new ArrayList<>(killedCount);
+        for (int slot = killed.nextSetBit(0); slot >= 0; slot = killed.nextSetBit(slot + 1)) {
+            members.add(slotMembers.get(slot));
+        }
+        return members;
+    }
+
+    public void clear() {
+        slots.clear();
+        slotMembers.clear();
+        killed.clear();
+        killedCount = 0;
+    }
+}
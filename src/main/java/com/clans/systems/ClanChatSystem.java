@@ -4,6 +4,7 @@ import com.clans.Simpleclans;
 import com.clans.data.ClanDataManager;
 import com.clans.model.Clan;
 import com.clans.model.ChatToggleState;
+import com.clans.util.ClanUtils;
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
 import net.minecraft.network.message.MessageType;
 import net.minecraft.network.message.SignedMessage;
@@ -11,8 +12,6 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
-import java.util.UUID;
-
 public class ClanChatSystem {
     
     public void initialize() {
@@ -40,11 +39,6 @@ public class ClanChatSystem {
                 .formatted(Formatting.WHITE));
         
         // Broadcast to all online clan members
-        for (UUID memberUuid : clan.getMembers()) {
-            ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-            if (member != null) {
-                member.sendMessage(clanMessage, false);
-            }
-        }
+        ClanUtils.broadcastToClan(clan, clanMessage);
     }
 }
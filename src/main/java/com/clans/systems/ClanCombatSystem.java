@@ -2,49 +2,38 @@ package com.clans.systems;
 
 import com.clans.Simpleclans;
 import com.clans.data.ClanDataManager;
+import com.clans.data.ClanRelationMatrix;
 import com.clans.model.Clan;
+import com.clans.model.ClanPlayer;
 import com.clans.util.ClanUtils;
 import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
 import net.fabricmc.fabric.api.event.player.AttackEntityCallback;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.damage.DamageSource;
-import net.minecraft.entity.damage.DamageTypes;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.Formatting;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
-import net.minecraft.server.world.ServerWorld;
 
 // 🔧 FIXED: Added missing imports for status effects
 import net.minecraft.entity.effect.StatusEffectInstance;
 import net.minecraft.entity.effect.StatusEffects;
 
 import java.util.UUID;
-import java.util.WeakHashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.HashSet;
 
 public class ClanCombatSystem {
     
-    // Enhanced tracking for kill attribution
-    private final Map<ServerPlayerEntity, ServerPlayerEntity> lastDamagers = new WeakHashMap<>();
-    private final Map<ServerPlayerEntity, Long> lastDamageTime = new WeakHashMap<>();
+    // Kill and assist attribution from the damage players actually took
     private static final long DAMAGE_TIMEOUT = 10000; // 10 seconds to attribute kill
-    
-    // 🔧 Prevent infinite loop by tracking processed damage
-    private final Set<LivingEntity> processingDamage = new HashSet<>();
+    private static final int DAMAGE_LEDGER_SIZE = 16;  // Most recent hits kept per victim
+    private final ClanDamageLedger damageLedger = new ClanDamageLedger(DAMAGE_LEDGER_SIZE, DAMAGE_TIMEOUT);
     
     public void initialize() {
-        // Register PvP attack events for damage calculation and kill attribution
+        // Register PvP attack events for friendly fire and ally protection
         AttackEntityCallback.EVENT.register((player, world, hand, entity, hitResult) -> {
             if (player instanceof ServerPlayerEntity attacker && entity instanceof ServerPlayerEntity victim) {
-                // Track last damager with timestamp for kill attribution
-                lastDamagers.put(victim, attacker);
-                lastDamageTime.put(victim, System.currentTimeMillis());
-                
                 return handlePvPAttack(attacker, victim);
             }
             return ActionResult.PASS;
@@ -54,14 +43,12 @@ public class ClanCombatSystem {
     }
     
     private ActionResult handlePvPAttack(ServerPlayerEntity attacker, ServerPlayerEntity victim) {
-        ClanDataManager dataManager = Simpleclans.getDataManager();
-        
-        Clan attackerClan = dataManager.getPlayerClan(attacker.getUuid());
-        Clan victimClan = dataManager.getPlayerClan(victim.getUuid());
+        // Clan context is cached on the player entities, no map lookups per hit
+        Clan attackerClan = ClanPlayer.getClan(attacker);
+        Clan victimClan = ClanPlayer.getClan(victim);
         
         // Same clan members cannot attack each other (friendly fire protection)
-        if (attackerClan != null && victimClan != null && 
-            attackerClan.getName().equals(victimClan.getName())) {
+        if (attackerClan != null && attackerClan == victimClan) {
             attacker.sendMessage(Text.literal("⛔ You cannot attack your clan members!")
                 .formatted(Formatting.RED), false);
             return ActionResult.FAIL;
@@ -69,8 +56,7 @@ public class ClanCombatSystem {
         
         // Allied clans cannot attack each other
         if (attackerClan != null && victimClan != null) {
-            String victimClanKey = victimClan.getName().toLowerCase();
-            if (attackerClan.getAllies().contains(victimClanKey)) {
+            if (relation(attacker, victim) == ClanRelationMatrix.ALLY) {
                 attacker.sendMessage(Text.literal("⛔ You cannot attack allied clan members!")
                     .formatted(Formatting.RED), false);
                 return ActionResult.FAIL;
@@ -80,137 +66,147 @@ public class ClanCombatSystem {
         return ActionResult.PASS;
     }
     
-    // 🔧 Safe damage handling with proper loop prevention
+    // Blocks friendly fire and ally damage; bonuses are applied by modifyDamage
     public boolean handleDamageEvent(LivingEntity entity, DamageSource damageSource, float damageAmount) {
-        // 🔧 CRITICAL: Prevent infinite loops by ignoring magic damage from our system
-        if (damageSource.isOf(DamageTypes.MAGIC) || processingDamage.contains(entity)) {
-            return true; // Allow damage but don't process it
-        }
-        
         // Only process if attacker is a player
         if (!(damageSource.getAttacker() instanceof ServerPlayerEntity attacker)) {
             return true; // Allow damage if no player attacker
         }
+        if (!(entity instanceof ServerPlayerEntity victim)) {
+            return true;
+        }
         
-        ClanDataManager dataManager = Simpleclans.getDataManager();
-        Clan attackerClan = dataManager.getPlayerClan(attacker.getUuid());
+        Clan attackerClan = ClanPlayer.getClan(attacker);
+        Clan victimClan = ClanPlayer.getClan(victim);
+        if (attackerClan == null || victimClan == null) {
+            return true;
+        }
+        
+        // Prevent friendly fire (clan members)
+        if (victimClan == attackerClan) {
+            Simpleclans.LOGGER.debug("⛔ Blocked friendly fire damage");
+            return false; // Block clan member damage
+        }
         
+        // Prevent ally damage
+        if (relation(attacker, victim) == ClanRelationMatrix.ALLY) {
+            Simpleclans.LOGGER.debug("⛔ Blocked ally damage");
+            return false; // Block ally damage
+        }
+        
+        return true; // Allow original damage
+    }
+    
+    // Called once per hit from LivingEntity.applyArmorToDamage, before armor; returns the scaled amount
+    public float modifyDamage(LivingEntity entity, DamageSource damageSource, float damageAmount) {
+        if (!(damageSource.getAttacker() instanceof ServerPlayerEntity attacker)) {
+            return damageAmount;
+        }
+        
+        Clan attackerClan = ClanPlayer.getClan(attacker);
         if (attackerClan == null) {
-            return true; // No clan buffs to apply
+            recordDamage(entity, attacker, damageAmount);
+            return damageAmount; // No clan buffs to apply
         }
         
         // Calculate damage multiplier
         float damageMultiplier = 1.0f;
         
-        // Proximity buff calculation (applies to ALL targets)
-        int nearbyMembers = getNearbyMembersCount(attacker, attackerClan);
-        if (nearbyMembers > 0) {
-            float proximityBonus = nearbyMembers * (float)Simpleclans.getConfig().proximityDamageBonus;
-            damageMultiplier += proximityBonus;
-            
-            Simpleclans.LOGGER.debug("🏹 Proximity bonus applied: +{}% ({} nearby members)", 
-                proximityBonus * 100, nearbyMembers);
-        }
-        
-        // Handle PvP-specific logic
-        if (entity instanceof ServerPlayerEntity victim) {
-            Clan victimClan = dataManager.getPlayerClan(victim.getUuid());
-            
-            // Prevent friendly fire (clan members)
-            if (victimClan != null && victimClan.getName().equals(attackerClan.getName())) {
-                Simpleclans.LOGGER.debug("⛔ Blocked friendly fire damage");
-                return false; // Block clan member damage
-            }
-            
-            // Prevent ally damage
-            if (victimClan != null) {
-                String victimKey = victimClan.getName().toLowerCase();
-                if (attackerClan.getAllies().contains(victimKey)) {
-                    Simpleclans.LOGGER.debug("⛔ Blocked ally damage");
-                    return false; // Block ally damage
-                }
+        // Melee already carries the proximity bonus in the attack damage attribute; projectiles read the shared state
+        if (!damageSource.isDirect()) {
+            int nearbyMembers = Simpleclans.getProximitySystem().getProximityState().getNearbyCount(attacker, attackerClan);
+            if (nearbyMembers > 0) {
+                float proximityBonus = nearbyMembers * (float)Simpleclans.getConfig().proximityDamageBonus;
+                damageMultiplier += proximityBonus;
                 
-                // Apply enemy damage bonus
-                if (attackerClan.getEnemies().contains(victimKey)) {
-                    float enemyBonus = (float)Simpleclans.getConfig().enemyDamageBonus;
-                    damageMultiplier += enemyBonus;
-                    
-                    Simpleclans.LOGGER.debug("⚔️ Enemy bonus applied: +{}%", enemyBonus * 100);
-                }
+                Simpleclans.LOGGER.debug("🏹 Proximity bonus applied: +{}% ({} nearby members)", 
+                    proximityBonus * 100, nearbyMembers);
             }
         }
         
-        // 🔧 SAFE: Apply additional damage with proper loop prevention
-        if (damageMultiplier > 1.0f && entity.getWorld() instanceof ServerWorld serverWorld) {
-            // Mark entity as being processed to prevent loops
-            processingDamage.add(entity);
-            
-            try {
-                float additionalDamage = damageAmount * (damageMultiplier - 1.0f);
-                
-                // Apply additional damage with magic damage type (filtered out above)
-                entity.damage(serverWorld, serverWorld.getDamageSources().magic(), additionalDamage);
+        // Apply enemy damage bonus
+        if (entity instanceof ServerPlayerEntity victim) {
+            if (relation(attacker, victim) == ClanRelationMatrix.ENEMY) {
+                float enemyBonus = (float)Simpleclans.getConfig().enemyDamageBonus;
+                damageMultiplier += enemyBonus;
                 
-                Simpleclans.LOGGER.debug("💥 Applied {}x damage multiplier ({} additional damage)", 
-                    damageMultiplier, additionalDamage);
-                    
-            } finally {
-                // Always remove from processing set
-                processingDamage.remove(entity);
+                Simpleclans.LOGGER.debug("⚔️ Enemy bonus applied: +{}%", enemyBonus * 100);
             }
         }
         
-        return true; // Allow original damage
+        float finalAmount = damageAmount * damageMultiplier;
+        recordDamage(entity, attacker, finalAmount);
+        return finalAmount;
     }
     
-    private int getNearbyMembersCount(ServerPlayerEntity player, Clan clan) {
-        int count = 0;
-        double proximityRadius = Simpleclans.getConfig().proximityRadius;
-        
-        for (UUID memberUuid : clan.getMembers()) {
-            if (memberUuid.equals(player.getUuid())) continue; // Don't count self
-            
-            ServerPlayerEntity member = player.getServer().getPlayerManager().getPlayer(memberUuid);
-            if (member != null && ClanUtils.getDistance(player, member) <= proximityRadius) {
-                count++;
-            }
+    private void recordDamage(LivingEntity entity, ServerPlayerEntity attacker, float amount) {
+        if (entity instanceof ServerPlayerEntity victim && victim != attacker) {
+            damageLedger.record(victim.getUuid(), attacker.getUuid(), amount);
         }
-        return count;
+    }
+    
+    // Drops ledgers whose hits have all expired
+    public void cleanupDamageLedger() {
+        damageLedger.pruneExpired();
+    }
+    
+    // Relation between the players' clans from their cached relation ids; NONE if either has no clan
+    private static int relation(ServerPlayerEntity from, ServerPlayerEntity to) {
+        return Simpleclans.getDataManager().getRelation(ClanPlayer.getClanId(from), ClanPlayer.getClanId(to));
     }
     
     // 🔧 Enhanced kill tracking with better logging
     public void handlePlayerDeath(ServerPlayerEntity victim) {
         ClanDataManager dataManager = Simpleclans.getDataManager();
+        if (!dataManager.isReady()) return;
         
-        // Find the killer with timeout check
-        ServerPlayerEntity killer = getValidKiller(victim);
+        // Killer and assists from the damage ledger; they may have logged out or respawned since
+        ClanDamageLedger.Attribution attribution = damageLedger.attributeKill(victim.getUuid());
+        UUID killerId = attribution.getKiller();
         
-        Clan victimClan = dataManager.getPlayerClan(victim.getUuid());
+        Clan victimClan = ClanPlayer.getClan(victim);
         if (victimClan != null) {
-            victimClan.addDeath();
+            dataManager.recordDeath(victimClan);
             Simpleclans.LOGGER.info("💀 Added death to clan: {} (Total deaths: {})", 
                 victimClan.getOriginalName(), victimClan.getDeaths());
         }
         
-        if (killer != null) {
-            Clan killerClan = dataManager.getPlayerClan(killer.getUuid());
+        if (killerId != null) {
+            Clan killerClan = dataManager.getPlayerClan(killerId);
             if (killerClan != null) {
-                killerClan.addKill(killer.getUuid(), victim.getUuid());
+                dataManager.recordKill(killerClan, killerId, victim.getUuid());
                 
                 Simpleclans.LOGGER.info("⚔️ KILL TRACKED: {} ({}) killed {} ({}) | {} now has {} total kills", 
-                    killer.getName().getString(), killerClan.getOriginalName(),
+                    dataManager.getPlayerName(killerId), killerClan.getOriginalName(),
                     victim.getName().getString(), victimClan != null ? victimClan.getOriginalName() : "No Clan",
                     killerClan.getOriginalName(), killerClan.getKills());
                 
                 // Check for war victory condition
                 checkWarVictory(killerClan, victimClan);
             }
+            notifyAssists(attribution, victim, victimClan);
         } else {
             Simpleclans.LOGGER.debug("No valid killer found for {} (timeout or no attacker)", 
                 victim.getName().getString());
         }
-        
-        dataManager.save();
+    }
+    
+    private void notifyAssists(ClanDamageLedger.Attribution attribution, ServerPlayerEntity victim, Clan victimClan) {
+        ClanDataManager dataManager = Simpleclans.getDataManager();
+        for (UUID assistId : attribution.getAssists()) {
+            Clan assistClan = dataManager.getPlayerClan(assistId);
+            if (assistClan == null || assistClan == victimClan) continue;
+            
+            Simpleclans.LOGGER.info("🤝 ASSIST: {} ({}) helped kill {} ({} damage)", 
+                dataManager.getPlayerName(assistId), assistClan.getOriginalName(),
+                victim.getName().getString(), String.format("%.1f", attribution.getDamageDealt(assistId)));
+            
+            ServerPlayerEntity assister = dataManager.getServer().getPlayerManager().getPlayer(assistId);
+            if (assister != null) {
+                assister.sendMessage(Text.literal("🤝 Assist on " + victim.getName().getString() + "!")
+                    .formatted(Formatting.GREEN), false);
+            }
+        }
     }
     
     private void checkWarVictory(Clan killerClan, Clan victimClan) {
@@ -218,8 +214,8 @@ public class ClanCombatSystem {
         
         // Check if both clans are at war with each other
         if (killerClan.isAtWar() && victimClan.isAtWar() &&
-            killerClan.getWarTarget().equals(victimClan.getName().toLowerCase()) &&
-            victimClan.getWarTarget().equals(killerClan.getName().toLowerCase())) {
+            killerClan.getWarTarget().equals(victimClan.getName()) &&
+            victimClan.getWarTarget().equals(killerClan.getName())) {
             
             // Check if killer clan has killed all enemy members
             if (killerClan.hasKilledAllEnemies(victimClan.getMembers())) {
@@ -228,66 +224,50 @@ public class ClanCombatSystem {
         }
     }
     
-    private ServerPlayerEntity getValidKiller(ServerPlayerEntity victim) {
-        ServerPlayerEntity killer = lastDamagers.get(victim);
-        if (killer == null) return null;
-        
-        Long damageTime = lastDamageTime.get(victim);
-        if (damageTime == null || (System.currentTimeMillis() - damageTime) > DAMAGE_TIMEOUT) {
-            return null; // Damage too old to attribute
-        }
-        
-        return killer;
-    }
-    
     private void handleWarVictory(Clan winnerClan, Clan loserClan) {
         ClanDataManager dataManager = Simpleclans.getDataManager();
         
         Simpleclans.LOGGER.info("🏆 War victory triggered for clan: {}", winnerClan.getOriginalName());
         
         // Give rewards to winning clan
-        for (UUID memberUuid : winnerClan.getMembers()) {
-            ServerPlayerEntity member = dataManager.getServer().getPlayerManager().getPlayer(memberUuid);
-            if (member != null) {
-                // Give netherite and gold to all members
-                ItemStack netherite = new ItemStack(Items.NETHERITE_INGOT, 
-                    Simpleclans.getConfig().warWinnerNetherite);
-                ItemStack gold = new ItemStack(Items.GOLD_INGOT, 
-                    Simpleclans.getConfig().warWinnerGold);
-                
-                member.getInventory().insertStack(netherite);
-                member.getInventory().insertStack(gold);
-                
-                // Give king extra netherite ingot
-                if (winnerClan.isKing(memberUuid)) {
-                    ItemStack extraNetherite = new ItemStack(Items.NETHERITE_INGOT, 1);
-                    member.getInventory().insertStack(extraNetherite);
-                    
-                    member.sendMessage(Text.literal("You received an extra netherite ingot for leading your clan to victory!")
-                        .formatted(Formatting.GOLD), false);
-                }
-                
-                // 🔧 FIXED: Now with proper imports, these will compile correctly
-                // Apply 2-hour speed and strength buffs
-                int duration = Simpleclans.getConfig().warBuffDurationHours * 60 * 60 * 20; // Convert to ticks
-                member.addStatusEffect(new StatusEffectInstance(StatusEffects.SPEED, duration, 0, false, true));
-                member.addStatusEffect(new StatusEffectInstance(StatusEffects.STRENGTH, duration, 0, false, true));
+        for (ServerPlayerEntity member : dataManager.getOnlineMembers(winnerClan)) {
+            // Give netherite and gold to all members
+            ItemStack netherite = new ItemStack(Items.NETHERITE_INGOT, 
+                Simpleclans.getConfig().warWinnerNetherite);
+            ItemStack gold = new ItemStack(Items.GOLD_INGOT, 
+                Simpleclans.getConfig().warWinnerGold);
+            
+            member.getInventory().insertStack(netherite);
+            member.getInventory().insertStack(gold);
+            
+            // Give king extra netherite ingot
+            if (winnerClan.isKing(member.getUuid())) {
+                ItemStack extraNetherite = new ItemStack(Items.NETHERITE_INGOT, 1);
+                member.getInventory().insertStack(extraNetherite);
                 
-                member.sendMessage(Text.literal("🏆 Your clan won the war! You received rewards and buffs!")
+                member.sendMessage(Text.literal("You received an extra netherite ingot for leading your clan to victory!")
                     .formatted(Formatting.GOLD), false);
             }
+            
+            // 🔧 FIXED: Now with proper imports, these will compile correctly
+            // Apply 2-hour speed and strength buffs
+            int duration = Simpleclans.getConfig().warBuffDurationHours * 60 * 60 * 20; // Convert to ticks
+            member.addStatusEffect(new StatusEffectInstance(StatusEffects.SPEED, duration, 0, false, true));
+            member.addStatusEffect(new StatusEffectInstance(StatusEffects.STRENGTH, duration, 0, false, true));
+            
+            member.sendMessage(Text.literal("🏆 Your clan won the war! You received rewards and buffs!")
+                .formatted(Formatting.GOLD), false);
         }
         
         // Broadcast victory
         Text victoryMessage = Text.literal("🏆 WAR ENDED! " + winnerClan.getOriginalName() + " defeated " + loserClan.getOriginalName())
             .formatted(Formatting.GOLD, Formatting.BOLD);
         
-        ClanUtils.broadcastToClan(winnerClan, victoryMessage, dataManager.getServer());
-        ClanUtils.broadcastToClan(loserClan, victoryMessage, dataManager.getServer());
+        ClanUtils.broadcastToClan(winnerClan, victoryMessage);
+        ClanUtils.broadcastToClan(loserClan, victoryMessage);
         
         // Reset war status
-        winnerClan.resetWar();
-        loserClan.resetWar();
+        dataManager.endWar(winnerClan, loserClan);
         
         Simpleclans.LOGGER.info("War ended: {} defeated {}", winnerClan.getOriginalName(), loserClan.getOriginalName());
     }
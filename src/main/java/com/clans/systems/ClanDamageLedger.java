@@ -0,0 +1,134 @@
+package com.clans.systems;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent player damage per victim, keyed by UUID so attribution survives
+ * respawns and reconnects. Each victim has a fixed-size ring buffer of
+ * (attacker, amount, time) entries: a full buffer overwrites its oldest
+ * entry, and entries past the timeout are dropped from the old end, each
+ * exactly once. Per-victim updates go through ConcurrentHashMap.compute.
+ */
+public class ClanDamageLedger {
+
+    public static final class Attribution {
+        static final Attribution NONE = new Attribution(null, List.of(), Map.of());
+
+        private final UUID killer;
+        private final List<UUID> assists;
+        private final Map<UUID, Float> damageDealt;
+
+        Attribution(UUID killer, List<UUID> assists, Map<UUID, Float> damageDealt) {
+            this.killer = killer;
+            this.assists = assists;
+            this.damageDealt = damageDealt;
+        }
+
+        // Most recent attacker within the timeout, or null
+        public UUID getKiller() { return killer; }
+
+        // Other attackers within the timeout, most recent first
+        public List<UUID> getAssists() { return assists; }
+
+        // Total damage each attacker dealt within the timeout
+        public float getDamageDealt(UUID attacker) { return damageDealt.getOrDefault(attacker, 0f); }
+    }
+
+    private static final class VictimLedger {
+        final UUID[] attackers;
+        final float[] amounts;
+        final long[] times;
+        int oldest;
+        int size;
+
+        VictimLedger(int capacity) {
+            attackers = new UUID[capacity];
+            amounts = new float[capacity];
+            times = new long[capacity];
+        }
+
+        void add(UUID attacker, float amount, long now) {
+            if (size == attackers.length) {
+                oldest = (oldest + 1) % attackers.length;
+                size--;
+            }
+            int slot = (oldest + size) % attackers.length;
+            attackers[slot] = attacker;
+            amounts[slot] = amount;
+            times[slot] = now;
+            size++;
+        }
+
+        // Entries are in time order, so expired ones are always at the old end
+        void expire(long cutoff) {
+            while (size > 0 && times[oldest] < cutoff) {
+                attackers[oldest] = null;
+                oldest = (oldest + 1) % attackers.length;
+                size--;
+            }
+        }
+
+        UUID newest() {
+            return attackers[(oldest + size - 1) % attackers.length];
+        }
+    }
+
+    private final Map<UUID, VictimLedger> ledgers = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long timeoutMillis;
+
+    public ClanDamageLedger(int capacity, long timeoutMillis) {
+        this.capacity = capacity;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void record(UUID victim, UUID attacker, float amount) {
+        long now = System.currentTimeMillis();
+        ledgers.compute(victim, (id, ledger) -> {
+            if (ledger == null) ledger = new VictimLedger(capacity);
+            ledger.expire(now - timeoutMillis);
+            ledger.add(attacker, amount, now);
+            return ledger;
+        });
+    }
+
+    // Attributes the victim's death and clears their ledger
+    public Attribution attributeKill(UUID victim) {
+        VictimLedger ledger = ledgers.remove(victim);
+        if (ledger == null) return Attribution.NONE;
+
+        ledger.expire(System.currentTimeMillis() - timeoutMillis);
+        if (ledger.size == 0) return Attribution.NONE;
+
+        // Newest first, so the first key is the killer and the rest are assists in recency order
+        Map<UUID, Float> damageDealt = new LinkedHashMap<>();
+        for (int back = 0; back < ledger.size; back++) {
+            int slot = (ledger.oldest + ledger.size - 1 - back) % capacity;
+            damageDealt.merge(ledger.attackers[slot], ledger.amounts[slot], Float::sum);
+        }
+        UUID killer = ledger.newest();
+        List<UUID> assists = new ArrayList<>(damageDealt.keySet());
+        assists.remove(killer);
+        return new Attribution(killer, assists, damageDealt);
+    }
+
+    // Drops victims whose entries have all expired; safe to call from any thread
+    public void pruneExpired() {
+        long cutoff = System.currentTimeMillis() - timeoutMillis;
+        for (UUID victim : ledgers.keySet()) {
+            ledgers.computeIfPresent(victim, (id, ledger) -> {
+                ledger.expire(cutoff);
+                return ledger.size == 0 ? null : ledger;
+            });
+        }
+    }
+
+    public void clear() {
+        ledgers.clear();
+    }
+}
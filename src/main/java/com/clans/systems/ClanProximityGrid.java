@@ -0,0 +1,107 @@
+package com.clans.systems;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Uniform grid over the online clan members of one dimension, with cells as
+ * wide as the proximity radius. Anyone within the radius of a member sits in
+ * the same or an adjacent cell, so a neighbor query checks at most 27 cells
+ * with squared distances instead of every other member of the clan.
+ * Members are captured on the server thread; {@link #computeNearby()} only
+ * reads that snapshot, so it can run on a worker thread.
+ */
+public class ClanProximityGrid {
+    private static final int CELL_BITS = 21;
+    private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+    // Position snapshot taken when the member is captured
+    public static final class Member {
+        public final UUID playerId;
+        public final String clanKey;
+        public final int clanSize;
+        final double x;
+        final double y;
+        final double z;
+        int nearby;
+
+        Member(ServerPlayerEntity player, String clanKey, int clanSize) {
+            this.playerId = player.getUuid();
+            this.clanKey = clanKey;
+            this.clanSize = clanSize;
+            this.x = player.getX();
+            this.y = player.getY();
+            this.z = player.getZ();
+        }
+
+        public int getNearby() {
+            return nearby;
+        }
+    }
+
+    private final List<Member> members = new ArrayList<>();
+    private final Map<Long, List<Member>> cells = new HashMap<>();
+    private final double cellSize;
+    private final double radiusSquared;
+
+    public ClanProximityGrid(double radius) {
+        this.cellSize = Math.max(radius, 1.0);
+        this.radiusSquared = radius * radius;
+    }
+
+    public void add(ServerPlayerEntity player, String clanKey, int clanSize) {
+        members.add(new Member(player, clanKey, clanSize));
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    // Buckets the snapshot and fills every member's count of same-clan neighbors
+    public void computeNearby() {
+        for (Member member : members) {
+            cells.computeIfAbsent(key(cell(member.x), cell(member.y), cell(member.z)), k -> new ArrayList<>(4))
+                .add(member);
+        }
+        for (Member member : members) {
+            member.nearby = countNearby(member);
+        }
+    }
+
+    // Members of the same clan within the radius, not counting the member itself
+    private int countNearby(Member member) {
+        int cx = cell(member.x);
+        int cy = cell(member.y);
+        int cz = cell(member.z);
+        int count = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    List<Member> cell = cells.get(key(cx + dx, cy + dy, cz + dz));
+                    if (cell == null) continue;
+                    for (Member other : cell) {
+                        if (other == member || !other.clanKey.equals(member.clanKey)) continue;
+                        double ox = other.x - member.x;
+                        double oy = other.y - member.y;
+                        double oz = other.z - member.z;
+                        if (ox * ox + oy * oy + oz * oz <= radiusSquared) count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy, int cz) {
+        return ((cx & CELL_MASK) << (2 * CELL_BITS)) | ((cy & CELL_MASK) << CELL_BITS) | (cz & CELL_MASK);
+    }
+}
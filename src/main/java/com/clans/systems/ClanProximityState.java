@@ -0,0 +1,84 @@
+package com.clans.systems;
+
+import com.clans.Simpleclans;
+import com.clans.model.Clan;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest proximity result per player, shared between the proximity cycle
+ * that writes it and the damage handler that reads it. A read is O(1) while
+ * the entry is younger than proximityMaxAgeMillis; an older or missing entry
+ * is recomputed from the clan's online members and cached again.
+ */
+public class ClanProximityState {
+
+    private static final class Entry {
+        final int nearbyMembers;
+        final boolean fullBonus;
+        volatile long updatedAt;
+
+        Entry(int nearbyMembers, boolean fullBonus, long updatedAt) {
+            this.nearbyMembers = nearbyMembers;
+            this.fullBonus = fullBonus;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public void update(UUID playerId, int nearbyMembers, boolean fullBonus) {
+        entries.put(playerId, new Entry(nearbyMembers, fullBonus, System.currentTimeMillis()));
+    }
+
+    // The player was checked this cycle and nothing changed, so the cached result is still current
+    public void touch(UUID playerId, long now) {
+        Entry entry = entries.get(playerId);
+        if (entry != null) entry.updatedAt = now;
+    }
+
+    public void remove(UUID playerId) {
+        entries.remove(playerId);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // Cached value regardless of age, for display and status queries
+    public int getCachedNearbyCount(UUID playerId) {
+        Entry entry = entries.get(playerId);
+        return entry != null ? entry.nearbyMembers : 0;
+    }
+
+    public boolean hasFullBonus(UUID playerId) {
+        Entry entry = entries.get(playerId);
+        return entry != null && entry.fullBonus;
+    }
+
+    public int getNearbyCount(ServerPlayerEntity player, Clan clan) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(player.getUuid());
+        if (entry != null && now - entry.updatedAt <= Simpleclans.getConfig().proximityMaxAgeMillis) {
+            return entry.nearbyMembers;
+        }
+
+        int nearbyMembers = countNearby(player, clan);
+        entries.put(player.getUuid(), new Entry(nearbyMembers, entry != null && entry.fullBonus, now));
+        return nearbyMembers;
+    }
+
+    private static int countNearby(ServerPlayerEntity player, Clan clan) {
+        double radius = Simpleclans.getConfig().proximityRadius;
+        double radiusSquared = radius * radius;
+        int count = 0;
+        for (ServerPlayerEntity member : Simpleclans.getDataManager().getOnlineMembers(clan)) {
+            if (member == player || member.getWorld() != player.getWorld()) continue;
+            if (member.squaredDistanceTo(player) <= radiusSquared) count++;
+        }
+        return count;
+    }
+}
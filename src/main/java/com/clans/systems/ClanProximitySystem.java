@@ -3,172 +3,357 @@ package com.clans.systems;
 import com.clans.Simpleclans;
 import com.clans.data.ClanDataManager;
 import com.clans.model.Clan;
-import com.clans.util.ClanUtils;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+import net.minecraft.entity.attribute.EntityAttribute;
+import net.minecraft.entity.attribute.EntityAttributeInstance;
+import net.minecraft.entity.attribute.EntityAttributeModifier;
+import net.minecraft.entity.attribute.EntityAttributes;
 import net.minecraft.entity.effect.StatusEffectInstance;
 import net.minecraft.entity.effect.StatusEffects;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.world.World;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Proximity buffs in three phases: member positions are captured on the
+ * server tick, neighbor counts are computed on worker threads (one task per
+ * dimension), and the resulting effect and action-bar changes are applied
+ * back on the tick thread, spread over ticks within proximityTickBudgetMicros.
+ */
 public class ClanProximitySystem {
-    private ScheduledExecutorService scheduler;
+    // Transient modifiers: never written to player data, so a crash cannot leave them behind
+    private static final Identifier SPEED_MODIFIER_ID = Identifier.of(Simpleclans.MOD_ID, "proximity_speed");
+    private static final Identifier DAMAGE_MODIFIER_ID = Identifier.of(Simpleclans.MOD_ID, "proximity_damage");
+    private static final Identifier MINING_MODIFIER_ID = Identifier.of(Simpleclans.MOD_ID, "full_clan_mining");
+    private static final Identifier ATTACK_SPEED_MODIFIER_ID = Identifier.of(Simpleclans.MOD_ID, "full_clan_attack_speed");
+    // +20% block break speed and +10% attack speed on top of the base values
+    private static final double FULL_BONUS_MINING = 0.2;
+    private static final double FULL_BONUS_ATTACK_SPEED = 0.1;
+    // Command tags are saved with the player, so the marker outlives a crash just like the effect does
+    private static final String RESISTANCE_TAG = Simpleclans.MOD_ID + ".full_clan_resistance";
+    
+    private ExecutorService workers;
     private MinecraftServer server;
-    private final Map<UUID, Integer> activeProximityBuffs = new ConcurrentHashMap<>();
-    private final Map<UUID, Boolean> fullClanBonusActive = new ConcurrentHashMap<>();
+    private final ClanProximityState state = new ClanProximityState();
     
     // Track current effect levels to avoid unnecessary reapplication
-    private final Map<UUID, Integer> currentSpeedLevel = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> currentBuffLevel = new ConcurrentHashMap<>();
     private final Map<UUID, Boolean> currentFullBonus = new ConcurrentHashMap<>();
     
+    // Cycle state; only the server thread touches these
+    private int ticksUntilCapture;
+    private CompletableFuture<List<ProximityResult>> computing;
+    private final Queue<ProximityResult> pendingChanges = new ArrayDeque<>();
+    
+    // Where each member was last evaluated; clans whose members all stayed put are skipped
+    private final Map<UUID, TrackedPlayer> lastEvaluated = new HashMap<>();
+    private final Map<String, TrackedClan> trackedClans = new HashMap<>();
+    private final List<UUID> departedPlayers = new ArrayList<>();
+    private long captureCycle;
+    
+    // Last action bar sent to each buffed player; packets go out only on change or refresh
+    private final Map<UUID, ActionBarState> actionBars = new HashMap<>();
+    private final Map<Integer, Text> actionBarTexts = new HashMap<>();
+    private double actionBarSpeedBonus = Double.NaN;
+    private double actionBarDamageBonus = Double.NaN;
+    
+    private static final class ProximityResult {
+        final UUID playerId;
+        final int nearbyMembers;
+        final boolean fullBonus;
+        
+        ProximityResult(UUID playerId, int nearbyMembers, boolean fullBonus) {
+            this.playerId = playerId;
+            this.nearbyMembers = nearbyMembers;
+            this.fullBonus = fullBonus;
+        }
+    }
+    
+    private static final class TrackedPlayer {
+        World world;
+        String clanKey;
+        double x;
+        double y;
+        double z;
+        long seenCycle;
+        
+        boolean hasMoved(ServerPlayerEntity player, String clanKey, double thresholdSquared) {
+            if (player.getWorld() != world || !clanKey.equals(this.clanKey)) return true;
+            double dx = player.getX() - x;
+            double dy = player.getY() - y;
+            double dz = player.getZ() - z;
+            return dx * dx + dy * dy + dz * dz > thresholdSquared;
+        }
+        
+        void update(ServerPlayerEntity player, String clanKey) {
+            this.world = player.getWorld();
+            this.clanKey = clanKey;
+            this.x = player.getX();
+            this.y = player.getY();
+            this.z = player.getZ();
+        }
+    }
+    
+    private static final class TrackedClan {
+        int online;
+        int size;
+        long seenCycle;
+    }
+    
+    private static final class ActionBarState {
+        int key;
+        int sentTick;
+    }
+    
     public void initialize(MinecraftServer server) {
         this.server = server;
-        this.scheduler = Executors.newScheduledThreadPool(1);
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "SimpleClans-Proximity");
+            thread.setDaemon(true);
+            return thread;
+        });
         
         int checkInterval = Simpleclans.getConfig().proximityCheckSeconds;
-        scheduler.scheduleAtFixedRate(this::updateProximityEffects, 
-            checkInterval, checkInterval, TimeUnit.SECONDS);
+        ticksUntilCapture = checkInterval * 20;
+        
+        // Pre-build the action bars for the usual buff levels
+        for (int nearby = 1; nearby < Math.max(4, Simpleclans.getConfig().maxClanSize); nearby++) {
+            actionBarText(actionBarKey(nearby, false));
+            if (nearby >= 3) actionBarText(actionBarKey(nearby, true));
+        }
         
         Simpleclans.LOGGER.info("✅ Enhanced clan proximity system initialized ({}s intervals, {}m range)", 
             checkInterval, Simpleclans.getConfig().proximityRadius);
     }
     
     public void shutdown() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
+        if (workers != null && !workers.isShutdown()) {
+            workers.shutdown();
             try {
-                if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
+                if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                    workers.shutdownNow();
                 }
             } catch (InterruptedException e) {
-                scheduler.shutdownNow();
+                workers.shutdownNow();
             }
         }
+        computing = null;
+        pendingChanges.clear();
+        lastEvaluated.clear();
+        trackedClans.clear();
+        departedPlayers.clear();
+        actionBars.clear();
+        state.clear();
     }
     
-    private void updateProximityEffects() {
-        try {
-            ClanDataManager dataManager = Simpleclans.getDataManager();
-            Map<UUID, Integer> newBuffs = new HashMap<>();
-            Map<UUID, Boolean> newFullBonuses = new HashMap<>();
+    // Called at the end of every server tick
+    public void tick() {
+        if (workers == null || !Simpleclans.getDataManager().isReady()) return;
+        long start = System.nanoTime();
+        
+        if (computing != null && computing.isDone()) {
+            installResults();
+        }
+        
+        // A new cycle starts only once the previous one is fully applied
+        if (computing == null && pendingChanges.isEmpty() && --ticksUntilCapture <= 0) {
+            ticksUntilCapture = Math.max(1, Simpleclans.getConfig().proximityCheckSeconds) * 20;
+            capture();
+            refreshActionBars();
+        }
+        
+        applyPending(start);
+    }
+    
+    // Phase 1 (tick thread): snapshot the members of clans where someone moved, changed
+    // dimension, came online or left; everyone else keeps their cached buff level
+    private void capture() {
+        ClanDataManager dataManager = Simpleclans.getDataManager();
+        double radius = Simpleclans.getConfig().proximityRadius;
+        double threshold = Simpleclans.getConfig().proximityMoveThreshold;
+        double thresholdSquared = threshold * threshold;
+        long cycle = ++captureCycle;
+        Map<World, ClanProximityGrid> grids = new HashMap<>();
+        
+        for (Clan clan : dataManager.getAllClans()) {
+            // Online members come from the join/disconnect index, no lookup per member
+            List<ServerPlayerEntity> onlineMembers = dataManager.getOnlineMembers(clan);
+            if (onlineMembers.isEmpty()) continue;
             
-            // Process each clan
-            for (Clan clan : dataManager.getAllClans()) {
-                List<ServerPlayerEntity> onlineMembers = new ArrayList<>();
-                
-                // Get online clan members
-                for (UUID memberUuid : clan.getMembers()) {
-                    ServerPlayerEntity player = server.getPlayerManager().getPlayer(memberUuid);
-                    if (player != null) {
-                        onlineMembers.add(player);
-                    }
+            String clanKey = clan.getName();
+            int clanSize = clan.getMembers().size();
+            TrackedClan trackedClan = trackedClans.computeIfAbsent(clanKey, k -> new TrackedClan());
+            boolean changed = trackedClan.seenCycle == 0
+                || trackedClan.online != onlineMembers.size() || trackedClan.size != clanSize;
+            trackedClan.online = onlineMembers.size();
+            trackedClan.size = clanSize;
+            trackedClan.seenCycle = cycle;
+            
+            for (ServerPlayerEntity player : onlineMembers) {
+                TrackedPlayer tracked = lastEvaluated.get(player.getUuid());
+                if (tracked == null || tracked.hasMoved(player, clanKey, thresholdSquared)) {
+                    changed = true;
                 }
-                
-                // Calculate proximity bonuses for each member
+                if (tracked != null) tracked.seenCycle = cycle;
+            }
+            if (!changed) {
+                // Nobody moved, so the cached results are confirmed for another cycle
+                long now = System.currentTimeMillis();
                 for (ServerPlayerEntity player : onlineMembers) {
-                    int nearbyMembers = 0;
-                    
-                    for (ServerPlayerEntity other : onlineMembers) {
-                        if (!player.equals(other) && 
-                            ClanUtils.getDistance(player, other) <= Simpleclans.getConfig().proximityRadius) {
-                            nearbyMembers++;
-                        }
-                    }
-                    
-                    // Store buff level
-                    newBuffs.put(player.getUuid(), nearbyMembers);
-                    
-                    // Check for full clan bonus (all 4 members within range)
-                    boolean hasFullBonus = false;
-                    if (nearbyMembers > 0) {
-                        if (clan.getMembers().size() >= 4 && onlineMembers.size() >= 4 && nearbyMembers >= 3) {
-                            // Verify all 4 members are actually close to each other
-                            int tightGroupMembers = 0;
-                            for (ServerPlayerEntity member : onlineMembers) {
-                                int closeCount = 0;
-                                for (ServerPlayerEntity other : onlineMembers) {
-                                    if (!member.equals(other) && 
-                                        ClanUtils.getDistance(member, other) <= Simpleclans.getConfig().proximityRadius) {
-                                        closeCount++;
-                                    }
-                                }
-                                if (closeCount >= 3) {
-                                    tightGroupMembers++;
-                                }
-                            }
-                            hasFullBonus = (tightGroupMembers >= 4);
-                        }
-                        
-                        // Apply effects only if they changed
-                        applyProximityEffects(player, nearbyMembers, hasFullBonus);
-                        updateActionBar(player, nearbyMembers, hasFullBonus);
-                    } else {
-                        // Remove effects if no nearby members
-                        removeProximityEffects(player);
-                    }
-                    
-                    newFullBonuses.put(player.getUuid(), hasFullBonus);
+                    state.touch(player.getUuid(), now);
                 }
+                continue;
             }
             
-            // Update tracking
-            activeProximityBuffs.clear();
-            activeProximityBuffs.putAll(newBuffs);
-            fullClanBonusActive.clear();
-            fullClanBonusActive.putAll(newFullBonuses);
-            
-        } catch (Exception e) {
-            Simpleclans.LOGGER.error("Error updating proximity effects", e);
+            for (ServerPlayerEntity player : onlineMembers) {
+                grids.computeIfAbsent(player.getWorld(), w -> new ClanProximityGrid(radius))
+                    .add(player, clanKey, clanSize);
+                TrackedPlayer tracked = lastEvaluated.computeIfAbsent(player.getUuid(), id -> new TrackedPlayer());
+                tracked.update(player, clanKey);
+                tracked.seenCycle = cycle;
+            }
+        }
+        
+        // Players no longer online in any clan lose their buffs
+        lastEvaluated.entrySet().removeIf(entry -> {
+            if (entry.getValue().seenCycle == cycle) return false;
+            departedPlayers.add(entry.getKey());
+            return true;
+        });
+        trackedClans.values().removeIf(trackedClan -> trackedClan.seenCycle != cycle);
+        if (grids.isEmpty() && departedPlayers.isEmpty()) return;
+        
+        // Phase 2 (workers): neighbor counts per dimension in parallel, then the per-clan totals
+        List<CompletableFuture<ClanProximityGrid>> parts = new ArrayList<>(grids.size());
+        for (ClanProximityGrid grid : grids.values()) {
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                grid.computeNearby();
+                return grid;
+            }, workers));
         }
+        computing = CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> combine(grids.values()));
     }
     
-    // 🔧 FIXED: Proper speed effect calculation for 10% per member
-    private void applyProximityEffects(ServerPlayerEntity player, int nearbyMembers, boolean hasFullBonus) {
-        UUID playerId = player.getUuid();
-        int duration = (Simpleclans.getConfig().proximityCheckSeconds + 2) * 20; // Effect duration in ticks
-        
-        // Calculate speed level to achieve 10% per nearby member
-        // Since Speed Level 0 = +20%, Level 1 = +40%, Level 2 = +60%, Level 3 = +80%
-        // We need custom calculation for 10%, 20%, 30%, 40%
-        int desiredSpeedLevel = Math.min(nearbyMembers, 4) - 1; // -1 because Level 0 is the minimum
+    private static List<ProximityResult> combine(Collection<ClanProximityGrid> grids) {
+        // Full clan bonus: at least 4 members of the clan who each have 3 others within range
+        Map<String, Integer> onlineCounts = new HashMap<>();
+        Map<String, Integer> tightCounts = new HashMap<>();
+        for (ClanProximityGrid grid : grids) {
+            for (ClanProximityGrid.Member member : grid.getMembers()) {
+                onlineCounts.merge(member.clanKey, 1, Integer::sum);
+                if (member.getNearby() >= 3) {
+                    tightCounts.merge(member.clanKey, 1, Integer::sum);
+                }
+            }
+        }
         
-        // Only apply if changed to avoid effect flickering
-        Integer currentSpeed = currentSpeedLevel.get(playerId);
-        Boolean currentFull = currentFullBonus.get(playerId);
+        List<ProximityResult> results = new ArrayList<>();
+        for (ClanProximityGrid grid : grids) {
+            for (ClanProximityGrid.Member member : grid.getMembers()) {
+                boolean fullBonus = member.getNearby() >= 3 && member.clanSize >= 4
+                    && onlineCounts.get(member.clanKey) >= 4
+                    && tightCounts.getOrDefault(member.clanKey, 0) >= 4;
+                results.add(new ProximityResult(member.playerId, member.getNearby(), fullBonus));
+            }
+        }
+        return results;
+    }
+    
+    // Publishes the new buff levels and queues only players whose effects need touching
+    private void installResults() {
+        List<ProximityResult> results;
+        try {
+            results = computing.join();
+        } catch (CompletionException e) {
+            Simpleclans.LOGGER.error("Error updating proximity effects", e.getCause());
+            // Positions were recorded for a cycle that never applied; evaluate everyone again
+            lastEvaluated.clear();
+            trackedClans.clear();
+            return;
+        } finally {
+            computing = null;
+        }
         
-        if (currentSpeed == null || !currentSpeed.equals(desiredSpeedLevel)) {
-            // Remove old speed effect first
-            if (player.hasStatusEffect(StatusEffects.SPEED)) {
-                player.removeStatusEffect(StatusEffects.SPEED);
+        for (ProximityResult result : results) {
+            // Players with no one nearby and no effects to remove need nothing this cycle
+            if (result.nearbyMembers > 0 || hasProximityEffects(result.playerId)) {
+                pendingChanges.add(result);
             }
-            
-            // Apply new speed effect
-            if (desiredSpeedLevel >= 0) {
-                player.addStatusEffect(new StatusEffectInstance(StatusEffects.SPEED, duration, desiredSpeedLevel, true, false));
-                currentSpeedLevel.put(playerId, desiredSpeedLevel);
-                
-                Simpleclans.LOGGER.debug("Applied Speed Level {} to {} ({} nearby members)", 
-                    desiredSpeedLevel, player.getName().getString(), nearbyMembers);
+            // Update tracking; players in unchanged clans keep their entries
+            state.update(result.playerId, result.nearbyMembers, result.fullBonus);
+        }
+        for (UUID playerId : departedPlayers) {
+            state.remove(playerId);
+            if (hasProximityEffects(playerId)) {
+                pendingChanges.add(new ProximityResult(playerId, 0, false));
             }
         }
+        departedPlayers.clear();
+    }
+    
+    private boolean hasProximityEffects(UUID playerId) {
+        return currentBuffLevel.containsKey(playerId) || Boolean.TRUE.equals(currentFullBonus.get(playerId));
+    }
+    
+    // Phase 3 (tick thread): apply queued changes until this tick's budget is spent
+    private void applyPending(long start) {
+        long budgetNanos = Simpleclans.getConfig().proximityTickBudgetMicros * 1000L;
+        ProximityResult result;
+        while ((result = pendingChanges.poll()) != null) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(result.playerId);
+            if (player == null) {
+                // Logged out; nothing to apply, stop tracking their effects
+                currentBuffLevel.remove(result.playerId);
+                currentFullBonus.remove(result.playerId);
+            } else {
+                if (result.nearbyMembers > 0) {
+                    // Apply effects only if they changed
+                    applyProximityEffects(player, result.nearbyMembers, result.fullBonus);
+                    updateActionBar(player, result.nearbyMembers, result.fullBonus);
+                } else {
+                    // Remove effects if no nearby members
+                    removeProximityEffects(player);
+                }
+            }
+            if (System.nanoTime() - start >= budgetNanos) break;
+        }
+    }
+    
+    // Speed and damage follow the config exactly (proximitySpeedBonus/proximityDamageBonus per member)
+    private void applyProximityEffects(ServerPlayerEntity player, int nearbyMembers, boolean hasFullBonus) {
+        UUID playerId = player.getUuid();
+        
+        // Modifiers are only rewritten when their value changes
+        setModifier(player, EntityAttributes.MOVEMENT_SPEED, SPEED_MODIFIER_ID,
+            nearbyMembers * Simpleclans.getConfig().proximitySpeedBonus);
+        setModifier(player, EntityAttributes.ATTACK_DAMAGE, DAMAGE_MODIFIER_ID,
+            nearbyMembers * Simpleclans.getConfig().proximityDamageBonus);
+        currentBuffLevel.put(playerId, nearbyMembers);
         
-        // Apply full clan bonus effects
+        Boolean currentFull = currentFullBonus.get(playerId);
         if (hasFullBonus && (currentFull == null || !currentFull)) {
-            player.addStatusEffect(new StatusEffectInstance(StatusEffects.RESISTANCE, duration, 0, true, false));
-            player.addStatusEffect(new StatusEffectInstance(StatusEffects.HASTE, duration, 0, true, false));
+            setModifier(player, EntityAttributes.BLOCK_BREAK_SPEED, MINING_MODIFIER_ID, FULL_BONUS_MINING);
+            setModifier(player, EntityAttributes.ATTACK_SPEED, ATTACK_SPEED_MODIFIER_ID, FULL_BONUS_ATTACK_SPEED);
+            applyBonusResistance(player);
             currentFullBonus.put(playerId, true);
             
             Simpleclans.LOGGER.debug("Applied full clan bonus to {}", player.getName().getString());
         } else if (!hasFullBonus && currentFull != null && currentFull) {
             // Remove full bonus effects if no longer applicable
-            player.removeStatusEffect(StatusEffects.RESISTANCE);
-            player.removeStatusEffect(StatusEffects.HASTE);
+            removeFullBonus(player);
             currentFullBonus.put(playerId, false);
         }
     }
@@ -177,38 +362,146 @@ public class ClanProximitySystem {
     private void removeProximityEffects(ServerPlayerEntity player) {
         UUID playerId = player.getUuid();
         
-        // Remove speed effects
-        if (player.hasStatusEffect(StatusEffects.SPEED)) {
-            player.removeStatusEffect(StatusEffects.SPEED);
+        removeModifier(player, EntityAttributes.MOVEMENT_SPEED, SPEED_MODIFIER_ID);
+        removeModifier(player, EntityAttributes.ATTACK_DAMAGE, DAMAGE_MODIFIER_ID);
+        if (Boolean.TRUE.equals(currentFullBonus.get(playerId))) {
+            removeFullBonus(player);
         }
         
-        // Remove full bonus effects
-        player.removeStatusEffect(StatusEffects.RESISTANCE);
-        player.removeStatusEffect(StatusEffects.HASTE);
-        
         // Clear tracking
-        currentSpeedLevel.remove(playerId);
+        currentBuffLevel.remove(playerId);
         currentFullBonus.remove(playerId);
+        actionBars.remove(playerId);
+    }
+    
+    private void removeFullBonus(ServerPlayerEntity player) {
+        removeModifier(player, EntityAttributes.BLOCK_BREAK_SPEED, MINING_MODIFIER_ID);
+        removeModifier(player, EntityAttributes.ATTACK_SPEED, ATTACK_SPEED_MODIFIER_ID);
+        clearBonusResistance(player);
+    }
+    
+    // Resistance has no attribute; it lasts until the bonus ends instead of being refreshed.
+    // Players who already have Resistance from elsewhere keep theirs and are not tagged.
+    private static void applyBonusResistance(ServerPlayerEntity player) {
+        if (player.hasStatusEffect(StatusEffects.RESISTANCE)) return;
+        player.addStatusEffect(new StatusEffectInstance(StatusEffects.RESISTANCE, StatusEffectInstance.INFINITE, 0, true, false));
+        player.addCommandTag(RESISTANCE_TAG);
+    }
+    
+    // Only removes resistance this mod applied, including one left over from a crash
+    private static void clearBonusResistance(ServerPlayerEntity player) {
+        if (!player.removeCommandTag(RESISTANCE_TAG)) return;
+        StatusEffectInstance resistance = player.getStatusEffect(StatusEffects.RESISTANCE);
+        if (resistance != null && resistance.isInfinite()) {
+            player.removeStatusEffect(StatusEffects.RESISTANCE);
+        }
+    }
+    
+    private static void setModifier(ServerPlayerEntity player, RegistryEntry<EntityAttribute> attribute, Identifier id, double value) {
+        EntityAttributeInstance instance = player.getAttributeInstance(attribute);
+        if (instance == null) return;
+        if (value == 0) {
+            instance.removeModifier(id);
+            return;
+        }
+        EntityAttributeModifier current = instance.getModifier(id);
+        if (current != null && current.value() == value) return;
+        instance.updateModifier(new EntityAttributeModifier(id, value, EntityAttributeModifier.Operation.ADD_MULTIPLIED_BASE));
+    }
+    
+    private static void removeModifier(ServerPlayerEntity player, RegistryEntry<EntityAttribute> attribute, Identifier id) {
+        EntityAttributeInstance instance = player.getAttributeInstance(attribute);
+        if (instance != null) {
+            instance.removeModifier(id);
+        }
+    }
+    
+    public void onPlayerJoin(ServerPlayerEntity player) {
+        clearBonusResistance(player);
+    }
+    
+    // Strip the buffs before the player is saved and forget what was applied
+    public void onPlayerDisconnect(ServerPlayerEntity player) {
+        removeProximityEffects(player);
+        clearBonusResistance(player);
+        lastEvaluated.remove(player.getUuid());
+        state.remove(player.getUuid());
+    }
+    
+    // The respawned entity starts without our modifiers; re-evaluate the player's clan next cycle
+    public void onPlayerRespawn(ServerPlayerEntity player) {
+        // Command tags are copied to the new entity, effects only when it did not die
+        if (!player.hasStatusEffect(StatusEffects.RESISTANCE)) {
+            player.removeCommandTag(RESISTANCE_TAG);
+        }
+        currentBuffLevel.remove(player.getUuid());
+        currentFullBonus.remove(player.getUuid());
+        lastEvaluated.remove(player.getUuid());
     }
     
     private void updateActionBar(ServerPlayerEntity player, int nearbyMembers, boolean hasFullBonus) {
-        double speedBonus = nearbyMembers * Simpleclans.getConfig().proximitySpeedBonus * 100;
-        double damageBonus = nearbyMembers * Simpleclans.getConfig().proximityDamageBonus * 100;
+        int key = actionBarKey(nearbyMembers, hasFullBonus);
+        ActionBarState state = actionBars.computeIfAbsent(player.getUuid(), id -> new ActionBarState());
+        if (state.key == key) return;
         
-        String bonusText = hasFullBonus ? " + FULL CLAN BONUS!" : "";
-        Text message = Text.literal(String.format("⚡ Clan Buffs: +%.0f%% Speed, +%.0f%% Damage%s", 
-                speedBonus, damageBonus, bonusText))
-            .formatted(hasFullBonus ? Formatting.GOLD : Formatting.YELLOW);
+        state.key = key;
+        state.sentTick = server.getTicks();
+        player.sendMessage(actionBarText(key), true); // true = action bar
+    }
+    
+    // Re-sends unchanged action bars every actionBarRefreshSeconds so they stay visible; 0 turns this off
+    private void refreshActionBars() {
+        int refreshTicks = Simpleclans.getConfig().actionBarRefreshSeconds * 20;
+        if (refreshTicks <= 0) return;
+        
+        int now = server.getTicks();
+        for (Map.Entry<UUID, ActionBarState> entry : actionBars.entrySet()) {
+            ActionBarState state = entry.getValue();
+            if (now - state.sentTick < refreshTicks) continue;
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null) continue;
+            state.sentTick = now;
+            player.sendMessage(actionBarText(state.key), true);
+        }
+    }
+    
+    private static int actionBarKey(int nearbyMembers, boolean hasFullBonus) {
+        return (nearbyMembers << 1) | (hasFullBonus ? 1 : 0);
+    }
+    
+    // Texts are immutable, so one instance per buff level is shared; rebuilt if the bonuses are reconfigured
+    private Text actionBarText(int key) {
+        double speedBonusPerMember = Simpleclans.getConfig().proximitySpeedBonus;
+        double damageBonusPerMember = Simpleclans.getConfig().proximityDamageBonus;
+        if (speedBonusPerMember != actionBarSpeedBonus || damageBonusPerMember != actionBarDamageBonus) {
+            actionBarTexts.clear();
+            actionBarSpeedBonus = speedBonusPerMember;
+            actionBarDamageBonus = damageBonusPerMember;
+        }
         
-        player.sendMessage(message, true); // true = action bar
+        return actionBarTexts.computeIfAbsent(key, k -> {
+            int nearbyMembers = k >> 1;
+            boolean hasFullBonus = (k & 1) != 0;
+            double speedBonus = nearbyMembers * speedBonusPerMember * 100;
+            double damageBonus = nearbyMembers * damageBonusPerMember * 100;
+            
+            String bonusText = hasFullBonus ? " + FULL CLAN BONUS!" : "";
+            return Text.literal(String.format("⚡ Clan Buffs: +%.0f%% Speed, +%.0f%% Damage%s", 
+                    speedBonus, damageBonus, bonusText))
+                .formatted(hasFullBonus ? Formatting.GOLD : Formatting.YELLOW);
+        });
+    }
+    
+    public ClanProximityState getProximityState() {
+        return state;
     }
     
     public int getProximityBonus(UUID playerId) {
-        return activeProximityBuffs.getOrDefault(playerId, 0);
+        return state.getCachedNearbyCount(playerId);
     }
     
     public boolean hasFullClanBonus(UUID playerId) {
-        return fullClanBonusActive.getOrDefault(playerId, false);
+        return state.hasFullBonus(playerId);
     }
 }
 
@@ -20,8 +20,9 @@ public class ClanTimerSystem {
         this.server = server;
         this.scheduler = Executors.newScheduledThreadPool(2);
         
-        // Schedule netherite consumption check every hour
-        scheduler.scheduleAtFixedRate(this::checkNetheriteConsumption, 1, 1, TimeUnit.HOURS);
+        // Schedule netherite consumption check every hour; it changes vaults and can disband clans,
+        // which updates the online index and player clan caches, so it runs on the server thread
+        scheduler.scheduleAtFixedRate(() -> server.execute(this::checkNetheriteConsumption), 1, 1, TimeUnit.HOURS);
         
         // Schedule cleanup tasks every 5 minutes
         scheduler.scheduleAtFixedRate(this::cleanupTasks, 5, 5, TimeUnit.MINUTES);
@@ -45,6 +46,8 @@ public class ClanTimerSystem {
     private void checkNetheriteConsumption() {
         try {
             ClanDataManager dataManager = Simpleclans.getDataManager();
+            if (!dataManager.isReady()) return;
+            
             long currentTime = System.currentTimeMillis();
             long consumptionInterval = Simpleclans.getConfig().netheriteConsumptionHours * 60 * 60 * 1000;
             
@@ -54,15 +57,15 @@ public class ClanTimerSystem {
                 if (timeSinceConsumption >= consumptionInterval) {
                     // Time to consume netherite
                     if (clan.getNetheriteVault() > 0) {
-                        clan.setNetheriteVault(clan.getNetheriteVault() - 1);
                         clan.setLastNetheriteConsumption(currentTime);
+                        dataManager.updateVault(clan, clan.getNetheriteVault() - 1);
                         
                         // Warn if vault is getting low
                         if (clan.getNetheriteVault() <= 3) {
                             Text warning = Text.literal("Warning: Clan vault is running low! " + 
                                 clan.getNetheriteVault() + " netherite remaining.")
                                 .formatted(Formatting.YELLOW);
-                            ClanUtils.broadcastToClan(clan, warning, server);
+                            ClanUtils.broadcastToClan(clan, warning);
                         }
                     } else if (clan.getNetheriteVault() == 0) {
                         // Start grace period
@@ -74,7 +77,7 @@ public class ClanTimerSystem {
                             Text warning = Text.literal("Clan needs netherite in vault, " + hoursLeft + " hours left")
                                 .formatted(Formatting.RED);
                             
-                            ClanUtils.broadcastToClan(clan, warning, server);
+                            ClanUtils.broadcastToClan(clan, warning);
                             
                             // Mark players for notification when they log in
                             for (java.util.UUID memberUuid : clan.getMembers()) {
@@ -85,7 +88,7 @@ public class ClanTimerSystem {
                             Text disbandMessage = Text.literal("Clan vault had insufficient funds, disbanded the clan.")
                                 .formatted(Formatting.RED);
                             
-                            ClanUtils.broadcastToClan(clan, disbandMessage, server);
+                            ClanUtils.broadcastToClan(clan, disbandMessage);
                             
                             // Mark offline players for notification
                             for (java.util.UUID memberUuid : clan.getMembers()) {
@@ -98,8 +101,6 @@ public class ClanTimerSystem {
                     }
                 }
             }
-            
-            dataManager.save();
         } catch (Exception e) {
             Simpleclans.LOGGER.error("Error in netherite consumption check", e);
         }
@@ -110,6 +111,9 @@ public class ClanTimerSystem {
             // Clean up expired confirmations
             ClanUtils.cleanupConfirmations();
             
+            // Drop damage ledgers whose hits are past the attribution window
+            Simpleclans.getCombatSystem().cleanupDamageLedger();
+            
             // Clean up expired invitations is handled in the data manager
         } catch (Exception e) {
             Simpleclans.LOGGER.error("Error in cleanup tasks", e);
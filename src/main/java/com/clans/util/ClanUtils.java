@@ -142,12 +142,9 @@ public class ClanUtils {
         return found >= count;
     }
     
-    public static void broadcastToClan(Clan clan, Text message, MinecraftServer server) {
-        for (UUID memberUuid : clan.getMembers()) {
-            ServerPlayerEntity member = server.getPlayerManager().getPlayer(memberUuid);
-            if (member != null) {
-                member.sendMessage(message, false);
-            }
+    public static void broadcastToClan(Clan clan, Text message) {
+        for (ServerPlayerEntity member : Simpleclans.getDataManager().getOnlineMembers(clan)) {
+            member.sendMessage(message, false);
         }
     }
     
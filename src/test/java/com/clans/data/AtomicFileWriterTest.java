@@ -0,0 +1,57 @@
+package com.clans.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AtomicFileWriterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replacesTheTargetAndLeavesNoTempFile() throws IOException {
+        Path target = dir.resolve("clans.json");
+        Files.writeString(target, "old", StandardCharsets.UTF_8);
+
+        AtomicFileWriter.write(target, true, writer -> writer.write("new"));
+
+        assertEquals("new", Files.readString(target, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("clans.json.tmp")));
+    }
+
+    // A write that fails halfway must keep the previous file intact
+    @Test
+    void failedWriteKeepsTheOldFile() throws IOException {
+        Path target = dir.resolve("clans.json");
+        Files.writeString(target, "old", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> AtomicFileWriter.write(target, false, writer -> {
+            writer.write("partial");
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("old", Files.readString(target, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("clans.json.tmp")));
+    }
+
+    @Test
+    void fsyncPolicyFollowsTheConfigValue() {
+        assertEquals(AtomicFileWriter.FsyncPolicy.SHUTDOWN, AtomicFileWriter.FsyncPolicy.fromConfig(" Shutdown "));
+        assertEquals(AtomicFileWriter.FsyncPolicy.ALWAYS, AtomicFileWriter.FsyncPolicy.fromConfig("sometimes"));
+        assertEquals(AtomicFileWriter.FsyncPolicy.ALWAYS, AtomicFileWriter.FsyncPolicy.fromConfig(null));
+
+        assertFalse(AtomicFileWriter.FsyncPolicy.SHUTDOWN.shouldSync(false));
+        assertTrue(AtomicFileWriter.FsyncPolicy.SHUTDOWN.shouldSync(true));
+        assertFalse(AtomicFileWriter.FsyncPolicy.NEVER.shouldSync(true));
+        assertTrue(AtomicFileWriter.FsyncPolicy.ALWAYS.shouldSync(false));
+    }
+}
@@ -0,0 +1,218 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClanBinaryCodecTest {
+    private static final int MAGIC = 0x53434C42;
+
+    @TempDir
+    Path dir;
+
+    private final UUID redKing = UUID.randomUUID();
+    private final UUID redAdvisor = UUID.randomUUID();
+    private final UUID blueKing = UUID.randomUUID();
+    private final UUID blueMember = UUID.randomUUID();
+
+    private Map<String, Clan> sampleClans() {
+        Clan red = new Clan("Red", redKing);
+        red.addMember(redAdvisor);
+        red.addAdvisor(redAdvisor);
+        red.getEnemies().add("blue");
+        red.setNetheriteVault(7);
+        red.setTotalKills(12);
+        red.setTotalDeaths(3);
+        red.setCreatedTime(1_000L);
+        red.setLastNetheriteConsumption(2_000L);
+        red.startWar("blue");
+        red.getWarProgress().recordKill(blueMember);
+
+        Clan blue = new Clan("Blue", blueKing);
+        blue.addMember(blueMember);
+        blue.getEnemies().add("red");
+        blue.getNeutrals().add("green");
+        blue.startWar("red");
+
+        Map<String, Clan> clans = new HashMap<>();
+        clans.put(red.getName(), red);
+        clans.put(blue.getName(), blue);
+        return clans;
+    }
+
+    private ClanBinaryCodec.Contents roundTrip(boolean compress) throws IOException {
+        Map<UUID, String> playerToClan = Map.of(redKing, "red", redAdvisor, "red", blueKing, "blue", blueMember, "blue");
+        Map<String, Long> timers = Map.of("red", 5_000L);
+        byte[] payload = ClanBinaryCodec.encode(sampleClans(), playerToClan, timers);
+
+        Path file = dir.resolve(ClanBinaryCodec.FILE_NAME);
+        ClanBinaryCodec.write(file, payload, compress, false);
+        return ClanBinaryCodec.read(file);
+    }
+
+    private void assertSample(ClanBinaryCodec.Contents contents) {
+        Clan red = contents.clans.get("red");
+        assertEquals("Red", red.getOriginalName());
+        assertEquals(redKing, red.getKing());
+        assertEquals(Set.of(redAdvisor), red.getAdvisors());
+        assertEquals(Set.of(redKing, redAdvisor), red.getMembers());
+        assertEquals(Set.of("blue"), red.getEnemies());
+        assertEquals(7, red.getNetheriteVault());
+        assertEquals(12, red.getTotalKills());
+        assertEquals(3, red.getTotalDeaths());
+        assertEquals(1_000L, red.getCreatedTime());
+        assertEquals(2_000L, red.getLastNetheriteConsumption());
+        assertTrue(red.isAtWar());
+        assertEquals("blue", red.getWarTarget());
+        assertEquals(List.of(blueMember), red.getWarProgress().getKilled());
+
+        Clan blue = contents.clans.get("blue");
+        assertEquals(Set.of("green"), blue.getNeutrals());
+        assertEquals(0, blue.getWarProgress().getKilledCount());
+
+        assertEquals("blue", contents.playerToClan.get(blueMember));
+        assertEquals(4, contents.playerToClan.size());
+        assertEquals(Map.of("red", 5_000L), contents.timers);
+    }
+
+    @Test
+    void roundTripsUncompressed() throws IOException {
+        assertSample(roundTrip(false));
+    }
+
+    @Test
+    void roundTripsDeflated() throws IOException {
+        assertSample(roundTrip(true));
+    }
+
+    @Test
+    void copiesEncodeLikeTheOriginals() throws IOException {
+        Map<String, Clan> copies = new HashMap<>();
+        sampleClans().forEach((key, clan) -> copies.put(key, ClanBinaryCodec.copyOf(clan)));
+        Map<UUID, String> playerToClan = Map.of(redKing, "red", redAdvisor, "red", blueKing, "blue", blueMember, "blue");
+
+        Path file = dir.resolve(ClanBinaryCodec.FILE_NAME);
+        ClanBinaryCodec.write(file, ClanBinaryCodec.encode(copies, playerToClan, Map.of("red", 5_000L)), false, false);
+        assertSample(ClanBinaryCodec.read(file));
+    }
+
+    // Version 1 stored war kills as killer -> victims; the victims of every killer are merged
+    @Test
+    void readsVersionOneWarKills() throws IOException {
+        UUID secondVictim = UUID.randomUUID();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(1);
+        out.writeByte(0);
+
+        out.writeInt(2);
+        out.writeUTF("red");
+        out.writeUTF("blue");
+
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeUTF("Red");
+        writeUuid(out, redKing);
+        out.writeInt(0);                 // advisors
+        out.writeInt(1);                 // members
+        writeUuid(out, redKing);
+        out.writeInt(0);                 // allies
+        out.writeInt(1);                 // enemies
+        out.writeInt(1);
+        out.writeInt(0);                 // neutrals
+        out.writeInt(4);                 // vault
+        out.writeInt(2);                 // kills
+        out.writeInt(0);                 // deaths
+        out.writeLong(10L);
+        out.writeLong(20L);
+        out.writeBoolean(true);
+        out.writeInt(1);                 // war target "blue"
+        out.writeInt(2);                 // killers
+        writeUuid(out, redKing);
+        out.writeInt(1);
+        writeUuid(out, blueMember);
+        writeUuid(out, redAdvisor);
+        out.writeInt(2);
+        writeUuid(out, blueMember);
+        writeUuid(out, secondVictim);
+        out.writeInt(1);                 // legacy member names
+        writeUuid(out, redKing);
+        out.writeUTF("RedKing");
+
+        out.writeInt(1);
+        writeUuid(out, redKing);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.flush();
+
+        Path file = dir.resolve("v1.dat");
+        Files.write(file, bytes.toByteArray());
+        ClanBinaryCodec.Contents contents = ClanBinaryCodec.read(file);
+
+        Clan red = contents.clans.get("red");
+        assertEquals("blue", red.getWarTarget());
+        assertEquals(4, red.getNetheriteVault());
+        assertEquals(2, red.getWarProgress().getKilledCount());
+        assertTrue(red.getWarProgress().hasKilled(blueMember));
+        assertTrue(red.getWarProgress().hasKilled(secondVictim));
+        assertEquals("RedKing", red.drainLegacyMemberNames().get(redKing));
+        assertEquals("red", contents.playerToClan.get(redKing));
+        assertTrue(contents.timers.isEmpty());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.dat");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, () -> ClanBinaryCodec.read(file));
+    }
+
+    @Test
+    void rejectsNewerVersions() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(99);
+        out.writeByte(0);
+        out.flush();
+
+        Path file = dir.resolve("future.dat");
+        Files.write(file, bytes.toByteArray());
+        assertThrows(IOException.class, () -> ClanBinaryCodec.read(file));
+    }
+
+    @Test
+    void clanWithoutWarHasNoTarget() throws IOException {
+        Clan solo = new Clan("Solo", UUID.randomUUID());
+        byte[] payload = ClanBinaryCodec.encode(Map.of("solo", solo), Map.of(), Map.of());
+        Path file = dir.resolve(ClanBinaryCodec.FILE_NAME);
+        ClanBinaryCodec.write(file, payload, true, false);
+
+        Clan read = ClanBinaryCodec.read(file).clans.get("solo");
+        assertFalse(read.isAtWar());
+        assertNull(read.getWarTarget());
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+}
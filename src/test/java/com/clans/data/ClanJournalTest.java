@@ -0,0 +1,125 @@
+package com.clans.data;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClanJournalTest {
+    private final Gson gson = new Gson();
+
+    @TempDir
+    Path dir;
+
+    private List<JournalEntry> replayAll() {
+        List<JournalEntry> entries = new ArrayList<>();
+        new ClanJournal(dir, gson, Long.MAX_VALUE, () -> {}).replay(entries::add);
+        return entries;
+    }
+
+    private static List<JournalEntry.Type> types(List<JournalEntry> entries) {
+        List<JournalEntry.Type> types = new ArrayList<>();
+        for (JournalEntry entry : entries) types.add(entry.getType());
+        return types;
+    }
+
+    @Test
+    void entriesReplayInOrderAfterClose() throws IOException {
+        UUID killer = UUID.randomUUID();
+        UUID victim = UUID.randomUUID();
+        ClanJournal journal = new ClanJournal(dir, gson, Long.MAX_VALUE, () -> {});
+        journal.open();
+        journal.append(JournalEntry.vaultChanged("red", 3, 100L));
+        journal.append(JournalEntry.killRecorded("red", killer, victim, 7));
+        journal.append(JournalEntry.memberLeft("blue", victim));
+        journal.close();
+
+        List<JournalEntry> entries = replayAll();
+        assertEquals(List.of(JournalEntry.Type.VAULT_CHANGED, JournalEntry.Type.KILL_RECORDED, JournalEntry.Type.MEMBER_LEFT), types(entries));
+        assertEquals(3, entries.get(0).getValue());
+        assertEquals(victim, entries.get(1).getVictim());
+        assertEquals(7, entries.get(1).getValue());
+        assertEquals("blue", entries.get(2).getClan());
+    }
+
+    @Test
+    void reopeningContinuesInANewSegment() throws IOException {
+        ClanJournal first = new ClanJournal(dir, gson, Long.MAX_VALUE, () -> {});
+        first.open();
+        first.append(JournalEntry.vaultChanged("red", 1, 0L));
+        first.close();
+
+        ClanJournal second = new ClanJournal(dir, gson, Long.MAX_VALUE, () -> {});
+        second.open();
+        assertEquals(first.getCurrentSegment() + 1, second.getCurrentSegment());
+        second.append(JournalEntry.vaultChanged("red", 2, 0L));
+        second.close();
+
+        List<JournalEntry> entries = replayAll();
+        assertEquals(2, entries.size());
+        assertEquals(2, entries.get(1).getValue());
+
+        // What compaction does once the snapshot is written
+        second.deleteSegmentsBefore(second.getCurrentSegment());
+        entries = replayAll();
+        assertEquals(1, entries.size());
+        assertEquals(2, entries.get(0).getValue());
+    }
+
+    // A crash mid-write leaves half a line at the end; everything before it still replays
+    @Test
+    void tornLastLineIsSkipped() throws IOException {
+        String valid = gson.toJson(JournalEntry.deathRecorded("red", 4));
+        Files.writeString(dir.resolve("journal-1.log"), valid + "\n{\"t\":\"VAULT_CH", StandardCharsets.UTF_8);
+
+        List<JournalEntry> entries = replayAll();
+        assertEquals(List.of(JournalEntry.Type.DEATH_RECORDED), types(entries));
+        assertEquals(4, entries.get(0).getValue());
+    }
+
+    @Test
+    void passingTheThresholdRunsTheCompactor() throws IOException, InterruptedException {
+        CountDownLatch compacted = new CountDownLatch(1);
+        ClanJournal[] holder = new ClanJournal[1];
+        ClanJournal journal = new ClanJournal(dir, gson, 1, () -> {
+            try {
+                int keepFrom = holder[0].rotate();
+                holder[0].deleteSegmentsBefore(keepFrom);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            compacted.countDown();
+        });
+        holder[0] = journal;
+        journal.open();
+        journal.append(JournalEntry.vaultChanged("red", 1, 0L));
+        assertTrue(compacted.await(5, TimeUnit.SECONDS));
+
+        journal.append(JournalEntry.vaultChanged("red", 2, 0L));
+        journal.close();
+
+        List<JournalEntry> entries = replayAll();
+        assertEquals(1, entries.size());
+        assertEquals(2, entries.get(0).getValue());
+    }
+
+    @Test
+    void emptyDirectoryHasNothingToReplay() {
+        ClanJournal journal = new ClanJournal(dir.resolve("missing"), gson, Long.MAX_VALUE, () -> {});
+        assertFalse(journal.hasSegments());
+        assertEquals(0, journal.replay(entry -> {}));
+    }
+}
@@ -0,0 +1,111 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClanLeaderboardTest {
+    // Power is the vault alone, so tests control it directly
+    @BeforeAll
+    static void weighVaultOnly() {
+        Clan.setPowerWeights(1.0, 0.0, 0.0);
+    }
+
+    @AfterAll
+    static void restoreWeights() {
+        Clan.setPowerWeights(5.0, 0.5, 0.5);
+    }
+
+    private static Clan clan(String name, int vault) {
+        Clan clan = new Clan(name, UUID.randomUUID());
+        clan.setNetheriteVault(vault);
+        return clan;
+    }
+
+    @Test
+    void ordersByPowerThenName() {
+        ClanLeaderboard board = new ClanLeaderboard();
+        Clan low = clan("low", 1);
+        Clan bravo = clan("bravo", 5);
+        Clan alpha = clan("alpha", 5);
+        Clan high = clan("high", 9);
+        board.rebuild(List.of(low, bravo, alpha, high));
+
+        assertEquals(List.of(high, alpha, bravo, low), board.top(10));
+        assertEquals(List.of(high, alpha), board.top(2));
+        assertEquals(1, board.rankOf("high"));
+        assertEquals(3, board.rankOf("bravo"));
+        assertEquals(0, board.rankOf("missing"));
+    }
+
+    @Test
+    void removeAndReinsertKeepRanksConsistent() {
+        ClanLeaderboard board = new ClanLeaderboard();
+        Clan a = clan("a", 3);
+        Clan b = clan("b", 2);
+        Clan c = clan("c", 1);
+        board.rebuild(List.of(a, b, c));
+
+        board.remove("a");
+        assertEquals(1, board.rankOf("b"));
+        assertEquals(2, board.size());
+
+        a.setNetheriteVault(0);
+        board.update(a);
+        assertEquals(List.of(b, c, a), board.top(3));
+        assertEquals(3, board.rankOf("a"));
+    }
+
+    // Ranks are sums of spans along the search path, so checking every rank against a
+    // sorted copy after random churn catches any span that was not kept in step
+    @Test
+    void ranksMatchSortedOrderAfterRandomChurn() {
+        Random random = new Random(42);
+        ClanLeaderboard board = new ClanLeaderboard();
+        List<Clan> live = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Clan created = clan("clan" + i, random.nextInt(50));
+            live.add(created);
+            board.update(created);
+        }
+
+        for (int step = 0; step < 2000; step++) {
+            Clan picked = live.get(random.nextInt(live.size()));
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    board.remove(picked.getName());
+                    live.remove(picked);
+                    Clan created = clan("new" + step, random.nextInt(50));
+                    live.add(created);
+                    board.update(created);
+                }
+                case 1 -> {
+                    picked.setNetheriteVault(random.nextInt(50));
+                    board.update(picked);
+                }
+                default -> {
+                    board.remove(picked.getName());
+                    board.update(picked);
+                }
+            }
+        }
+
+        List<Clan> expected = new ArrayList<>(live);
+        expected.sort(Comparator.comparingInt(Clan::calculatePower).reversed().thenComparing(Clan::getName));
+        assertEquals(expected.size(), board.size());
+        assertEquals(expected, board.top(expected.size()));
+        assertEquals(expected.subList(0, 10), board.top(10));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, board.rankOf(expected.get(i).getName()));
+        }
+    }
+}
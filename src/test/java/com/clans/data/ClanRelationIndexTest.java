@@ -0,0 +1,64 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClanRelationIndexTest {
+
+    private static Clan clan(String name) {
+        return new Clan(name, UUID.randomUUID());
+    }
+
+    @Test
+    void removingAClanReturnsOnlyItsReferrers() {
+        Clan red = clan("red");
+        Clan blue = clan("blue");
+        Clan green = clan("green");
+        red.getEnemies().add("blue");
+        green.getAllies().add("blue");
+        blue.getNeutrals().add("red");
+
+        ClanRelationIndex index = new ClanRelationIndex();
+        index.rebuild(List.of(red, blue, green));
+
+        assertEquals(Set.of("red", "green"), index.removeClan(blue));
+        // blue's own link to red went with it
+        assertEquals(Set.of(), index.removeClan(red));
+    }
+
+    @Test
+    void refreshFollowsTheRelationSets() {
+        Clan red = clan("red");
+        Clan blue = clan("blue");
+        ClanRelationIndex index = new ClanRelationIndex();
+        index.rebuild(List.of(red, blue));
+
+        red.getAllies().add("blue");
+        index.refresh(red, "blue");
+        assertEquals(0, index.verify(List.of(red, blue)));
+
+        red.getAllies().remove("blue");
+        index.refresh(red, "blue");
+        assertEquals(0, index.verify(List.of(red, blue)));
+        assertEquals(Set.of(), index.removeClan(blue));
+    }
+
+    @Test
+    void verifyRepairsChangesMadeBehindItsBack() {
+        Clan red = clan("red");
+        Clan blue = clan("blue");
+        ClanRelationIndex index = new ClanRelationIndex();
+        index.rebuild(List.of(red, blue));
+
+        red.getEnemies().add("blue");
+        assertEquals(1, index.verify(List.of(red, blue)));
+        assertEquals(0, index.verify(List.of(red, blue)));
+        assertEquals(Set.of("red"), index.removeClan(blue));
+    }
+}
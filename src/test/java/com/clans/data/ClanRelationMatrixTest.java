@@ -0,0 +1,82 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClanRelationMatrixTest {
+
+    private static Clan clan(String name) {
+        return new Clan(name, UUID.randomUUID());
+    }
+
+    @Test
+    void relationsAreDirectional() {
+        ClanRelationMatrix matrix = new ClanRelationMatrix();
+        Clan red = clan("red");
+        Clan blue = clan("blue");
+
+        matrix.set(red, blue, ClanRelationMatrix.ENEMY);
+
+        assertEquals(ClanRelationMatrix.ENEMY, matrix.get(red, blue));
+        assertEquals(ClanRelationMatrix.NONE, matrix.get(blue, red));
+    }
+
+    @Test
+    void releasedIdIsReusedWithoutItsOldRelations() {
+        ClanRelationMatrix matrix = new ClanRelationMatrix();
+        Clan red = clan("red");
+        Clan blue = clan("blue");
+        matrix.set(red, blue, ClanRelationMatrix.ALLY);
+        matrix.set(blue, red, ClanRelationMatrix.ALLY);
+        int freed = blue.getRelationId();
+
+        matrix.release(blue);
+        assertEquals(-1, blue.getRelationId());
+
+        Clan green = clan("green");
+        assertEquals(freed, matrix.assign(green));
+        assertEquals(ClanRelationMatrix.NONE, matrix.get(red, green));
+        assertEquals(ClanRelationMatrix.NONE, matrix.get(green, red));
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        ClanRelationMatrix matrix = new ClanRelationMatrix();
+        Clan first = clan("first");
+        matrix.assign(first);
+        Clan last = null;
+        for (int i = 0; i < 200; i++) {
+            last = clan("clan" + i);
+            matrix.assign(last);
+        }
+
+        matrix.set(first, last, ClanRelationMatrix.NEUTRAL);
+        matrix.set(last, first, ClanRelationMatrix.ENEMY);
+
+        assertEquals(ClanRelationMatrix.NEUTRAL, matrix.get(first, last));
+        assertEquals(ClanRelationMatrix.ENEMY, matrix.get(last, first));
+    }
+
+    @Test
+    void rebuildFillsFromTheClanSets() {
+        Clan red = clan("red");
+        Clan blue = clan("blue");
+        Clan green = clan("green");
+        red.getAllies().add("blue");
+        red.getEnemies().add("green");
+        green.getNeutrals().add("red");
+
+        ClanRelationMatrix matrix = new ClanRelationMatrix();
+        matrix.rebuild(List.of(red, blue, green));
+
+        assertEquals(ClanRelationMatrix.ALLY, matrix.get(red, blue));
+        assertEquals(ClanRelationMatrix.ENEMY, matrix.get(red, green));
+        assertEquals(ClanRelationMatrix.NEUTRAL, matrix.get(green, red));
+        assertEquals(ClanRelationMatrix.NONE, matrix.get(blue, red));
+    }
+}
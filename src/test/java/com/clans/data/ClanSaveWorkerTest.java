@@ -0,0 +1,174 @@
+package com.clans.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClanSaveWorkerTest {
+
+    private static class RecordingSource implements ClanSaveWorker.Source {
+        final List<ClanDirtySet> captured = new ArrayList<>();
+        int written;
+        boolean busy;
+        boolean failWrites;
+
+        @Override
+        public <T> T onDataThread(Supplier<T> task) throws TimeoutException {
+            if (busy) throw new TimeoutException();
+            return task.get();
+        }
+
+        @Override
+        public ClanDataSnapshot captureSnapshot(ClanDirtySet dirty) {
+            captured.add(dirty);
+            return ClanDataSnapshot.rows(null, false, null, false, null, false);
+        }
+
+        @Override
+        public void writeSnapshot(ClanDataSnapshot snapshot, boolean fsync) throws IOException {
+            if (failWrites) throw new IOException("disk full");
+            written++;
+        }
+
+        @Override
+        public void saveNameIndex(boolean finalFlush) {}
+
+        ClanDirtySet last() {
+            return captured.get(captured.size() - 1);
+        }
+    }
+
+    @Test
+    void flushHandsOverExactlyWhatWasMarked() {
+        RecordingSource source = new RecordingSource();
+        ClanSaveWorker worker = new ClanSaveWorker(source);
+        UUID player = UUID.randomUUID();
+
+        worker.markClansDirty(List.of("red", "blue"));
+        worker.markPlayersDirty(List.of(player));
+        assertTrue(worker.flush());
+
+        ClanDirtySet dirty = source.last();
+        assertTrue(dirty.isDirty(ClanDataFile.CLANS));
+        assertTrue(dirty.isDirty(ClanDataFile.PLAYERS));
+        assertFalse(dirty.isDirty(ClanDataFile.TIMERS));
+        assertFalse(dirty.isAllTimers());
+        assertFalse(dirty.isAllClans());
+        assertEquals(Set.of("red", "blue"), dirty.getClanKeys());
+        assertEquals(Set.of(player), dirty.getPlayerIds());
+        assertEquals(1, source.written);
+
+        // Nothing left: the next flush neither captures nor writes
+        assertTrue(worker.flush());
+        assertEquals(1, source.captured.size());
+        assertFalse(worker.isDirty());
+    }
+
+    @Test
+    void markingWholeFilesMeansFullRewrites() {
+        RecordingSource source = new RecordingSource();
+        ClanSaveWorker worker = new ClanSaveWorker(source);
+
+        worker.markDirty();
+        worker.flush();
+
+        ClanDirtySet dirty = source.last();
+        assertTrue(dirty.isAllClans());
+        assertTrue(dirty.isAllPlayers());
+        assertTrue(dirty.isAllTimers());
+    }
+
+    @Test
+    void failedWriteKeepsEverythingDirty() {
+        RecordingSource source = new RecordingSource();
+        ClanSaveWorker worker = new ClanSaveWorker(source);
+
+        worker.markClansDirty(List.of("red"));
+        worker.markDirty(ClanDataFile.TIMERS);
+        source.failWrites = true;
+        assertFalse(worker.flush());
+        assertTrue(worker.isDirty());
+
+        worker.markClansDirty(List.of("blue"));
+        source.failWrites = false;
+        assertTrue(worker.flush());
+
+        ClanDirtySet retried = source.last();
+        assertEquals(Set.of("red", "blue"), retried.getClanKeys());
+        assertTrue(retried.isAllTimers());
+        assertEquals(1, source.written);
+    }
+
+    @Test
+    void busyServerThreadLeavesTheDirtySetUntouched() {
+        RecordingSource source = new RecordingSource();
+        ClanSaveWorker worker = new ClanSaveWorker(source);
+
+        worker.markClansDirty(List.of("red"));
+        source.busy = true;
+        assertFalse(worker.flush());
+        assertTrue(source.captured.isEmpty());
+        assertTrue(worker.isDirty());
+
+        source.busy = false;
+        assertTrue(worker.flush());
+        assertEquals(Set.of("red"), source.last().getClanKeys());
+    }
+
+    // Compaction drops journal segments when flush() says true, so a flush with nothing left
+    // to capture must still report the write that took its marks
+    @Test
+    void emptyFlushWaitsForTheWriteInFlight() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondCaptured = new CountDownLatch(1);
+        RecordingSource source = new RecordingSource() {
+            @Override
+            public <T> T onDataThread(Supplier<T> task) throws TimeoutException {
+                T result = super.onDataThread(task);
+                if (writing.getCount() == 0) secondCaptured.countDown();
+                return result;
+            }
+
+            @Override
+            public void writeSnapshot(ClanDataSnapshot snapshot, boolean fsync) throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                throw new IOException("disk full");
+            }
+        };
+        ClanSaveWorker worker = new ClanSaveWorker(source);
+        worker.markClansDirty(List.of("red"));
+
+        Thread first = new Thread(worker::flush);
+        first.start();
+        writing.await();
+
+        AtomicBoolean secondResult = new AtomicBoolean(true);
+        Thread second = new Thread(() -> secondResult.set(worker.flush()));
+        second.start();
+        secondCaptured.await();
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertFalse(secondResult.get());
+        assertTrue(worker.isDirty());
+    }
+}
@@ -0,0 +1,94 @@
+package com.clans.data;
+
+import com.clans.model.Clan;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClanStoreTest {
+    private final Gson gson = new Gson();
+    private final UUID redKing = UUID.randomUUID();
+    private final UUID blueKing = UUID.randomUUID();
+
+    private final Map<String, Clan> clans = new HashMap<>();
+    private final Map<UUID, String> playerToClan = new HashMap<>();
+    private final Map<String, Long> timers = new HashMap<>();
+
+    ClanStoreTest() {
+        clans.put("red", new Clan("Red", redKing));
+        clans.put("blue", new Clan("Blue", blueKing));
+        playerToClan.put(redKing, "red");
+        playerToClan.put(blueKing, "blue");
+        timers.put("red", 10L);
+        timers.put("blue", 20L);
+    }
+
+    private static ClanDirtySet dirty(int files, boolean allClans, Set<String> clanKeys, boolean allPlayers,
+                                      Set<UUID> playerIds, boolean allTimers) {
+        return new ClanDirtySet(files, allClans, clanKeys, allPlayers, playerIds, allTimers);
+    }
+
+    @Test
+    void changedClansCarryTheirOwnTimerRowsOnly() {
+        clans.remove("blue");
+        timers.remove("blue");
+        ClanDataSnapshot snapshot = ClanStore.captureRows(gson, clans, playerToClan, timers,
+            dirty(ClanDataFile.maskOf(ClanDataFile.CLANS), false, Set.of("blue"), false, Set.of(), false));
+
+        assertEquals(Set.of("blue"), snapshot.getClanRows().keySet());
+        assertNull(snapshot.getClanRows().get("blue"));
+        assertEquals(Set.of("blue"), snapshot.getTimerRows().keySet());
+        assertFalse(snapshot.isFullClanRewrite());
+        assertFalse(snapshot.isFullTimerRewrite());
+        assertNull(snapshot.getPlayerRows());
+    }
+
+    // Marking only the timers rewrites that table in full without touching the clan rows
+    @Test
+    void timersMarkedAloneAreAFullTimerRewrite() {
+        ClanDataSnapshot snapshot = ClanStore.captureRows(gson, clans, playerToClan, timers,
+            dirty(ClanDataFile.maskOf(ClanDataFile.TIMERS), false, Set.of(), false, Set.of(), true));
+
+        assertNull(snapshot.getClanRows());
+        assertEquals(timers, snapshot.getTimerRows());
+        assertTrue(snapshot.isFullTimerRewrite());
+        assertFalse(snapshot.isFullClanRewrite());
+    }
+
+    @Test
+    void wholeTimerTableWinsOverPartialClanChanges() {
+        ClanDataSnapshot snapshot = ClanStore.captureRows(gson, clans, playerToClan, timers,
+            dirty(ClanDataFile.maskOf(ClanDataFile.CLANS, ClanDataFile.TIMERS), false, Set.of("red"), false, Set.of(), true));
+
+        assertEquals(Set.of("red"), snapshot.getClanRows().keySet());
+        assertEquals(timers, snapshot.getTimerRows());
+        assertTrue(snapshot.isFullTimerRewrite());
+    }
+
+    @Test
+    void playerRowsFollowTheirOwnFlag() {
+        playerToClan.remove(blueKing);
+        ClanDataSnapshot partial = ClanStore.captureRows(gson, clans, playerToClan, timers,
+            dirty(ClanDataFile.maskOf(ClanDataFile.PLAYERS), false, Set.of(), false, Set.of(blueKing), false));
+        assertEquals(1, partial.getPlayerRows().size());
+        assertNull(partial.getPlayerRows().get(blueKing));
+        assertFalse(partial.isFullPlayerRewrite());
+
+        ClanDataSnapshot full = ClanStore.captureRows(gson, clans, playerToClan, timers,
+            dirty(ClanDataFile.allMask(), true, Set.of(), true, Set.of(), true));
+        assertEquals(playerToClan, full.getPlayerRows());
+        assertTrue(full.isFullPlayerRewrite());
+        assertTrue(full.isFullClanRewrite());
+        assertTrue(full.isFullTimerRewrite());
+        assertEquals(Set.of("red", "blue"), full.getClanRows().keySet());
+    }
+}
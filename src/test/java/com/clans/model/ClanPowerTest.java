@@ -0,0 +1,70 @@
+package com.clans.model;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClanPowerTest {
+    @BeforeAll
+    static void defaultWeights() {
+        Clan.setPowerWeights(5.0, 0.5, 0.5);
+    }
+
+    @AfterAll
+    static void restoreWeights() {
+        Clan.setPowerWeights(5.0, 0.5, 0.5);
+    }
+
+    private static Clan clan(int vault, int kills, int deaths) {
+        Clan clan = new Clan("red", UUID.randomUUID());
+        clan.setNetheriteVault(vault);
+        clan.setTotalKills(kills);
+        clan.setTotalDeaths(deaths);
+        return clan;
+    }
+
+    @Test
+    void warDoublesKillsAndDeaths() {
+        Clan clan = clan(2, 10, 4);
+        assertEquals(10 + 5 - 2, clan.calculatePower());
+
+        clan.startWar("blue");
+        assertEquals(10 + 10 - 4, clan.calculatePower());
+    }
+
+    @Test
+    void listenerHearsOnlyRealChanges() {
+        Clan clan = clan(1, 0, 0);
+        clan.calculatePower();
+        List<int[]> changes = new ArrayList<>();
+        clan.setPowerListener((changed, oldPower, newPower) -> changes.add(new int[] {oldPower, newPower}));
+
+        clan.setNetheriteVault(3);
+        clan.setNetheriteVault(3);
+        clan.setTotalKills(1); // half a point rounds down to nothing
+
+        assertEquals(1, changes.size());
+        assertEquals(5, changes.get(0)[0]);
+        assertEquals(15, changes.get(0)[1]);
+    }
+
+    @Test
+    void newWeightsInvalidateCachedScores() {
+        Clan clan = clan(2, 4, 2);
+        assertEquals(10 + 2 - 1, clan.calculatePower());
+
+        Clan.setPowerWeights(1.0, 1.0, 0.0);
+        try {
+            assertEquals(2 + 4, clan.calculatePower());
+        } finally {
+            Clan.setPowerWeights(5.0, 0.5, 0.5);
+        }
+        assertEquals(10 + 2 - 1, clan.calculatePower());
+    }
+}
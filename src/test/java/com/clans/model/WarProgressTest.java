@@ -0,0 +1,96 @@
+package com.clans.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarProgressTest {
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+
+    @Test
+    void countsEachVictimOnce() {
+        WarProgress progress = new WarProgress();
+
+        assertTrue(progress.recordKill(first));
+        assertFalse(progress.recordKill(first));
+        assertTrue(progress.recordKill(second));
+
+        assertEquals(2, progress.getKilledCount());
+        assertTrue(progress.hasKilled(first));
+        assertFalse(progress.hasKilled(third));
+    }
+
+    @Test
+    void memberLeavingIsUncountedAndCanBeCountedAgain() {
+        WarProgress progress = new WarProgress();
+        progress.recordKill(first);
+        progress.recordKill(second);
+
+        progress.memberLeft(first);
+        assertEquals(1, progress.getKilledCount());
+        assertFalse(progress.hasKilled(first));
+
+        // Leaving twice, or leaving without having died, changes nothing
+        progress.memberLeft(first);
+        progress.memberLeft(third);
+        assertEquals(1, progress.getKilledCount());
+
+        // Rejoined and killed again: the old slot is reused
+        assertTrue(progress.recordKill(first));
+        assertEquals(2, progress.getKilledCount());
+        assertEquals(List.of(first, second), progress.getKilled());
+    }
+
+    @Test
+    void retainMembersDropsKillsOutsideTheRoster() {
+        WarProgress progress = new WarProgress();
+        progress.recordKill(first);
+        progress.recordKill(second);
+        progress.recordKill(third);
+
+        progress.retainMembers(Set.of(second));
+
+        assertEquals(1, progress.getKilledCount());
+        assertEquals(List.of(second), progress.getKilled());
+    }
+
+    @Test
+    void clearStartsOver() {
+        WarProgress progress = new WarProgress();
+        progress.recordKill(first);
+        progress.clear();
+
+        assertEquals(0, progress.getKilledCount());
+        assertTrue(progress.getKilled().isEmpty());
+        assertTrue(progress.recordKill(first));
+    }
+
+    @Test
+    void victoryIsReachedWhenEveryCurrentEnemyIsKilled() {
+        Clan attackers = new Clan("Attackers", UUID.randomUUID());
+        Clan defenders = new Clan("Defenders", first);
+        defenders.addMember(second);
+        attackers.startWar(defenders.getName());
+
+        attackers.addWarKill(first);
+        assertFalse(attackers.hasKilledAllEnemies(defenders.getMembers()));
+
+        attackers.addWarKill(second);
+        assertTrue(attackers.hasKilledAllEnemies(defenders.getMembers()));
+
+        // A new recruit has to be killed too
+        defenders.addMember(third);
+        assertFalse(attackers.hasKilledAllEnemies(defenders.getMembers()));
+
+        attackers.resetWar();
+        assertEquals(0, attackers.getWarProgress().getKilledCount());
+    }
+}
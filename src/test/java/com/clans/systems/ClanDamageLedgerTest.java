@@ -0,0 +1,79 @@
+package com.clans.systems;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClanDamageLedgerTest {
+    private final UUID victim = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @Test
+    void lastAttackerIsKillerAndOthersAssistMostRecentFirst() {
+        ClanDamageLedger ledger = new ClanDamageLedger(8, 60_000);
+        ledger.record(victim, alice, 4f);
+        ledger.record(victim, bob, 3f);
+        ledger.record(victim, alice, 2f);
+        ledger.record(victim, carol, 1f);
+
+        ClanDamageLedger.Attribution attribution = ledger.attributeKill(victim);
+
+        assertEquals(carol, attribution.getKiller());
+        assertEquals(List.of(alice, bob), attribution.getAssists());
+        assertEquals(6f, attribution.getDamageDealt(alice));
+        assertEquals(3f, attribution.getDamageDealt(bob));
+        assertEquals(0f, attribution.getDamageDealt(UUID.randomUUID()));
+    }
+
+    @Test
+    void attributingClearsTheVictim() {
+        ClanDamageLedger ledger = new ClanDamageLedger(8, 60_000);
+        ledger.record(victim, alice, 1f);
+        ledger.attributeKill(victim);
+
+        ClanDamageLedger.Attribution again = ledger.attributeKill(victim);
+        assertNull(again.getKiller());
+        assertTrue(again.getAssists().isEmpty());
+    }
+
+    @Test
+    void fullBufferWrapsAroundAndDropsTheOldestHit() {
+        ClanDamageLedger ledger = new ClanDamageLedger(3, 60_000);
+        ledger.record(victim, alice, 5f);
+        ledger.record(victim, bob, 1f);
+        ledger.record(victim, carol, 1f);
+        ledger.record(victim, bob, 1f);
+        ledger.record(victim, carol, 1f);
+
+        ClanDamageLedger.Attribution attribution = ledger.attributeKill(victim);
+
+        assertEquals(carol, attribution.getKiller());
+        assertEquals(List.of(bob), attribution.getAssists());
+        assertEquals(0f, attribution.getDamageDealt(alice));
+        assertEquals(2f, attribution.getDamageDealt(carol));
+    }
+
+    @Test
+    void expiredHitsAreNotAttributed() throws InterruptedException {
+        ClanDamageLedger ledger = new ClanDamageLedger(4, 50);
+        ledger.record(victim, alice, 1f);
+        Thread.sleep(100);
+        ledger.record(victim, bob, 1f);
+
+        ClanDamageLedger.Attribution attribution = ledger.attributeKill(victim);
+        assertEquals(bob, attribution.getKiller());
+        assertTrue(attribution.getAssists().isEmpty());
+
+        ledger.record(victim, carol, 1f);
+        Thread.sleep(100);
+        ledger.pruneExpired();
+        assertNull(ledger.attributeKill(victim).getKiller());
+    }
+}